@@ -1,11 +1,14 @@
 package com.daniil.bookingservice;
 
 
+import com.daniil.bookingservice.event.BookingsBulkLoadedEvent;
 import com.daniil.bookingservice.service.TestDataService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Profile;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
 @Slf4j
@@ -14,17 +17,33 @@ import org.springframework.stereotype.Component;
 public class DataInit implements CommandLineRunner {
 
     private final TestDataService testDataService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * sync — как раньше, до регистрации в Eureka;
+     * async — в фоне, одной транзакцией, не блокируя старт;
+     * off — без тестовых данных.
+     */
+    @Value("${booking.seed.mode:sync}")
+    private String seedMode;
 
     @Override
     public void run(String... args) {
+        switch (seedMode) {
+            case "off" -> log.info("Test data initialization disabled");
+            case "async" -> new SimpleAsyncTaskExecutor("test-data-").execute(this::seed);
+            default -> seed();
+        }
+    }
+
+    private void seed() {
         log.info("Initializing test data...");
+        long started = System.currentTimeMillis();
 
-        testDataService.createTestUsers();
-        testDataService.createTestBookings();
-        testDataService.createIdempotencyTestData();
-        testDataService.createHistoricalData();
-        testDataService.createEdgeCaseData();
+        testDataService.createAllTestData();
+        // тестовые данные пишутся в обход BookingService
+        eventPublisher.publishEvent(new BookingsBulkLoadedEvent("test-data"));
 
-        log.info("Test data initialization completed");
+        log.info("Test data initialization completed in {} ms", System.currentTimeMillis() - started);
     }
 }
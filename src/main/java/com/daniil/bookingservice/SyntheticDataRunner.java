@@ -0,0 +1,34 @@
+package com.daniil.bookingservice;
+
+import com.daniil.bookingservice.dto.SyntheticDataRequest;
+import com.daniil.bookingservice.service.SyntheticDataGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Запуск с профилем synthetic-data: параметры берутся из booking.synthetic.*
+ * (например, --booking.synthetic.bookings=5000000 --booking.synthetic.workers=8).
+ */
+@Slf4j
+@Component
+@Profile("synthetic-data")
+@RequiredArgsConstructor
+public class SyntheticDataRunner implements CommandLineRunner {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+    private final Environment environment;
+
+    @Override
+    public void run(String... args) {
+        SyntheticDataRequest request = Binder.get(environment)
+                .bind("booking.synthetic", SyntheticDataRequest.class)
+                .orElseGet(SyntheticDataRequest::new);
+        log.info("Generating synthetic data: {}", request);
+        syntheticDataGenerator.generate(request);
+    }
+}
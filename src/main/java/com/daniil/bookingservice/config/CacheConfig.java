@@ -0,0 +1,12 @@
+package com.daniil.bookingservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Кэши приложения (Caffeine, настройки в spring.cache.*).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,29 @@
+package com.daniil.bookingservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Пулы Hikari, которые не являются бинами (шарды, реплики): метрики hikaricp.* регистрируются здесь же,
+ * по тегу pool у каждого пула свои.
+ */
+final class DataSourcePools {
+
+    private DataSourcePools() {
+    }
+
+    static HikariDataSource create(String poolName, String url, String username, String password,
+                                   int maximumPoolSize, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        if (meterRegistry != null) {
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,29 @@
+package com.daniil.bookingservice.config;
+
+import com.daniil.bookingservice.service.AuthService;
+import com.daniil.bookingservice.service.BookingService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Профиль fast-startup: всё создаётся лениво, кроме бинов, нужных первому
+ * POST /api/bookings, иначе их инициализация переезжает в первый запрос.
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter criticalPathBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                BookingService.class,
+                AuthService.class,
+                JwtDecoder.class,
+                RestTemplate.class
+        );
+    }
+}
@@ -0,0 +1,57 @@
+package com.daniil.bookingservice.config;
+
+import com.daniil.bookingservice.security.CoDelLoadShedder;
+import com.daniil.bookingservice.security.LoadSheddingFilter;
+import com.daniil.bookingservice.security.QueueTimeTrackingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Сброс нагрузки по времени ожидания во входящей очереди Tomcat (booking.load-shedding.*).
+ * Пул воркеров заменяется на QueueTimeTrackingExecutor с теми же server.tomcat.threads.*.
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.load-shedding.enabled", havingValue = "true")
+public class LoadSheddingConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public QueueTimeTrackingExecutor tomcatWorkerExecutor(ServerProperties serverProperties) {
+        ServerProperties.Tomcat.Threads threads = serverProperties.getTomcat().getThreads();
+        return new QueueTimeTrackingExecutor(threads.getMinSpare(), threads.getMax(), threads.getMaxQueueCapacity());
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> queueTimeTrackingCustomizer(
+            QueueTimeTrackingExecutor tomcatWorkerExecutor) {
+        return factory -> factory.addConnectorCustomizers(
+                connector -> connector.getProtocolHandler().setExecutor(tomcatWorkerExecutor));
+    }
+
+    @Bean
+    public CoDelLoadShedder coDelLoadShedder(@Value("${booking.load-shedding.target:20ms}") Duration target,
+                                             @Value("${booking.load-shedding.interval:200ms}") Duration interval,
+                                             @Value("${booking.load-shedding.critical-max-queue-time:2s}") Duration criticalMax) {
+        return new CoDelLoadShedder(target, interval, criticalMax);
+    }
+
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(
+            CoDelLoadShedder coDelLoadShedder,
+            MeterRegistry meterRegistry,
+            @Value("${booking.load-shedding.retry-after:1s}") Duration retryAfter) {
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(
+                new LoadSheddingFilter(coDelLoadShedder, Math.max(1, retryAfter.toSeconds()), meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,55 @@
+package com.daniil.bookingservice.config;
+
+import com.daniil.bookingservice.replica.ReadReplicaProperties;
+import com.daniil.bookingservice.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * Основная БД (spring.datasource.*) и реплика (booking.read-replica.*) за одним DataSource:
+ * транзакции readOnly = true читают с реплики, остальные идут в основную БД.
+ * При шардировании реплики задаются на шардах, см. ShardingConfig.
+ */
+@Configuration
+@ConditionalOnExpression("${booking.read-replica.enabled:false} and !${booking.sharding.enabled:false}")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryPool(DataSourceProperties properties, ObjectProvider<MeterRegistry> meterRegistry,
+                                       @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        return DataSourcePools.create("booking-primary", properties.determineUrl(), properties.determineUsername(),
+                properties.determinePassword(), maximumPoolSize, meterRegistry.getIfAvailable());
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaPool(ReadReplicaProperties properties, ObjectProvider<MeterRegistry> meterRegistry,
+                                       @Value("${spring.flyway.locations:classpath:db/migration}") String locations) {
+        if (properties.getUrl() == null) {
+            throw new IllegalStateException("booking.read-replica.url must be set when the read replica is enabled");
+        }
+        HikariDataSource replica = DataSourcePools.create("booking-replica", properties.getUrl(), properties.getUsername(),
+                properties.getPassword(), properties.getMaximumPoolSize(), meterRegistry.getIfAvailable());
+        if (properties.isMigrate()) {
+            Flyway.configure().dataSource(replica).locations(locations).load().migrate();
+        }
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryPool") HikariDataSource primaryPool,
+                                 @Qualifier("replicaPool") HikariDataSource replicaPool) {
+        return ReplicaRoutingDataSource.readWrite(primaryPool, replicaPool);
+    }
+}
@@ -0,0 +1,84 @@
+package com.daniil.bookingservice.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Кэш второго уровня Hibernate: регионы booking и user (READ_WRITE) и кэш запросов.
+ *
+ * <p>Регионы создаются заранее с ограничениями из booking.l2-cache.regions; регион без настроек
+ * Hibernate не создаст сам (missing_cache_strategy = fail), чтобы не получить неограниченный кэш.
+ * Статистика регионов публикуется в Micrometer (hibernate.second.level.cache.*) и видна в /actuator/metrics.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    public static final String BOOKING_REGION = "booking";
+    public static final String USER_REGION = "user";
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "booking.l2-cache.enabled", havingValue = "true")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+        // Свой провайдер, а не общий из Caching: у каждого контекста Spring свои регионы
+        CachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        Map<String, SecondLevelCacheProperties.Region> regions = properties.getRegions();
+        for (String name : new String[]{BOOKING_REGION, USER_REGION, QUERY_RESULTS_REGION}) {
+            createRegion(cacheManager, name, regions.getOrDefault(name, new SecondLevelCacheProperties.Region()));
+        }
+        // Время последнего изменения таблиц: по нему отбраковываются устаревшие результаты запросов,
+        // поэтому записи не должны вытесняться раньше результатов
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, null);
+        return cacheManager;
+    }
+
+    /**
+     * Hibernate сам находит hibernate-jcache на classpath, поэтому при выключенном кэше он отключается явно.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(ObjectProvider<CacheManager> hibernateCacheManager) {
+        return hibernateProperties -> {
+            CacheManager cacheManager = hibernateCacheManager.getIfAvailable();
+            if (cacheManager == null) {
+                hibernateProperties.put("hibernate.cache.use_second_level_cache", "false");
+                hibernateProperties.put("hibernate.cache.use_query_cache", "false");
+                return;
+            }
+            hibernateProperties.put("hibernate.cache.use_second_level_cache", "true");
+            hibernateProperties.put("hibernate.cache.use_query_cache", "true");
+            hibernateProperties.put("hibernate.cache.region.factory_class", "jcache");
+            hibernateProperties.put("hibernate.javax.cache.cache_manager", cacheManager);
+            hibernateProperties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            hibernateProperties.put("hibernate.generate_statistics", "true");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, SecondLevelCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (region != null) {
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            if (!region.getExpireAfterWrite().isZero()) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+            }
+        }
+        cacheManager.createCache(name, configuration);
+    }
+}
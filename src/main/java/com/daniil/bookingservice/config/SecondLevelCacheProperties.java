@@ -0,0 +1,31 @@
+package com.daniil.bookingservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * booking.l2-cache.*: кэш второго уровня Hibernate (JCache на Caffeine) для Booking, User и кэша запросов.
+ * Каждый регион ограничен по размеру и времени жизни записи.
+ */
+@Data
+@ConfigurationProperties(prefix = "booking.l2-cache")
+public class SecondLevelCacheProperties {
+
+    /** false — Hibernate ходит в БД без кэша второго уровня */
+    private boolean enabled = false;
+
+    /** Регионы по имени: booking, user, default-query-results-region */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        private long maximumSize = 10_000;
+
+        /** Время жизни записи после записи в кэш; 0 — без ограничения */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+}
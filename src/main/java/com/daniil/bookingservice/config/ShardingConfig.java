@@ -0,0 +1,69 @@
+package com.daniil.bookingservice.config;
+
+import com.daniil.bookingservice.replica.ReadReplicaProperties;
+import com.daniil.bookingservice.replica.ReplicaRoutingDataSource;
+import com.daniil.bookingservice.sharding.ShardRoutingDataSource;
+import com.daniil.bookingservice.sharding.ShardSchema;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Шардирование бронирований (booking.sharding.*): по пулу Hikari на шард (и на его реплику, если задана)
+ * и маршрутизирующий DataSource вместо spring.datasource.*. Каждый шард мигрируется при старте;
+ * Flyway из автоконфигурации видит шард 0.
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(ShardingProperties properties,
+                                             ReadReplicaProperties replicaProperties,
+                                             ObjectProvider<MeterRegistry> meterRegistry,
+                                             @Value("${spring.flyway.locations:classpath:db/migration}") String locations) {
+        List<ShardingProperties.Shard> shards = properties.getShards();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("booking.sharding.shards must not be empty when sharding is enabled");
+        }
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        List<DataSource> targets = new ArrayList<>(shards.size());
+        List<HikariDataSource> pools = new ArrayList<>();
+        try {
+            for (int i = 0; i < shards.size(); i++) {
+                ShardingProperties.Shard shard = shards.get(i);
+                HikariDataSource primary = DataSourcePools.create("booking-shard-" + i, shard.getUrl(),
+                        shard.getUsername(), shard.getPassword(), shard.getMaximumPoolSize(), registry);
+                pools.add(primary);
+                ShardSchema.prepare(primary, locations, i, shards.size());
+
+                HikariDataSource replica = null;
+                if (shard.getReplicaUrl() != null) {
+                    replica = DataSourcePools.create("booking-shard-" + i + "-replica", shard.getReplicaUrl(),
+                            shard.getUsername(), shard.getPassword(), shard.getMaximumPoolSize(), registry);
+                    pools.add(replica);
+                    if (replicaProperties.isMigrate()) {
+                        ShardSchema.prepare(replica, locations, i, shards.size());
+                    }
+                }
+                targets.add(ReplicaRoutingDataSource.readWrite(primary, replica));
+            }
+        } catch (RuntimeException e) {
+            pools.forEach(HikariDataSource::close);
+            throw e;
+        }
+        return new ShardRoutingDataSource(targets, pools);
+    }
+}
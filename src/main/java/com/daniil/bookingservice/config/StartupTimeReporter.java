@@ -0,0 +1,45 @@
+package com.daniil.bookingservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Замеряет время от старта JVM до первого успешного POST /api/bookings
+ * и публикует его как метрику booking.startup.first.booking.ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupTimeReporter {
+
+    private static final String BOOKINGS_PATH = "/api/bookings";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean reported = new AtomicBoolean();
+    private final AtomicLong firstBookingMillis = new AtomicLong();
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (reported.get()
+                || !"POST".equals(event.getMethod())
+                || !BOOKINGS_PATH.equals(event.getRequestUrl())
+                || event.getStatusCode() != 200
+                || !reported.compareAndSet(false, true)) {
+            return;
+        }
+
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long elapsed = event.getTimestamp() - jvmStart;
+        firstBookingMillis.set(elapsed);
+        meterRegistry.gauge("booking.startup.first.booking.ms", firstBookingMillis, AtomicLong::doubleValue);
+        log.info("Time to first successful booking: {} ms since JVM start", elapsed);
+    }
+}
@@ -0,0 +1,101 @@
+package com.daniil.bookingservice.controller;
+
+import com.daniil.bookingservice.dto.BookingResponse;
+import com.daniil.bookingservice.dto.BookingSearchCriteria;
+import com.daniil.bookingservice.dto.BookingSearchPage;
+import com.daniil.bookingservice.dto.BulkCancelJob;
+import com.daniil.bookingservice.dto.BulkCancelRequest;
+import com.daniil.bookingservice.repository.BookingRepository;
+import com.daniil.bookingservice.service.BulkCancellationService;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/bookings")
+@RequiredArgsConstructor
+public class AdminBookingController {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final BulkCancellationService bulkCancellationService;
+    private final BookingRepository bookingRepository;
+    private final ShardRouter shardRouter;
+
+    /**
+     * GET /api/admin/bookings/search?status=CONFIRMED&roomId=101&userId=5&from=2025-07-01&to=2025-07-31&size=50[&beforeId=...]
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/search")
+    public ResponseEntity<BookingSearchPage> search(@ModelAttribute BookingSearchCriteria criteria,
+                                                    @RequestParam(defaultValue = "50") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<Slice<BookingResponse>> slices = shardRouter.gather(shard -> bookingRepository.search(criteria, size));
+        return ResponseEntity.ok(merge(slices, size));
+    }
+
+    /**
+     * Слияние страниц шардов: id глобально уникальны, поэтому первые size по убыванию id
+     * и есть страница, а keyset beforeId продолжает её на всех шардах сразу.
+     */
+    static BookingSearchPage merge(List<Slice<BookingResponse>> slices, int size) {
+        List<BookingResponse> items = new ArrayList<>();
+        boolean anyHasNext = false;
+        for (Slice<BookingResponse> slice : slices) {
+            items.addAll(slice.getContent());
+            anyHasNext |= slice.hasNext();
+        }
+        items.sort(Comparator.comparing(BookingResponse::id).reversed());
+
+        boolean hasNext = anyHasNext || items.size() > size;
+        if (items.size() > size) {
+            items = new ArrayList<>(items.subList(0, size));
+        }
+        Long nextBeforeId = hasNext && !items.isEmpty() ? items.get(items.size() - 1).id() : null;
+        return new BookingSearchPage(items, hasNext, nextBeforeId);
+    }
+
+    /**
+     * POST /api/admin/bookings/bulk-cancel {"roomIds":[101,102],"from":"2025-07-01","to":"2025-07-15"}
+     * — 202 и ссылка на статус задачи.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/bulk-cancel")
+    public ResponseEntity<BulkCancelJob> bulkCancel(@RequestBody BulkCancelRequest request) {
+        try {
+            BulkCancelJob job = bulkCancellationService.start(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/admin/bookings/bulk-cancel/" + job.getJobId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/bulk-cancel/{jobId}")
+    public ResponseEntity<BulkCancelJob> bulkCancelStatus(@PathVariable String jobId) {
+        return bulkCancellationService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,31 @@
+package com.daniil.bookingservice.controller;
+
+import com.daniil.bookingservice.dto.SyntheticDataRequest;
+import com.daniil.bookingservice.dto.SyntheticDataResult;
+import com.daniil.bookingservice.service.SyntheticDataGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Генерация синтетических данных. Включается только явно: booking.synthetic.endpoint-enabled=true.
+ */
+@RestController
+@RequestMapping("/api/admin/synthetic-data")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "booking.synthetic.endpoint-enabled", havingValue = "true")
+public class AdminDataController {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<SyntheticDataResult> generate(@RequestBody(required = false) SyntheticDataRequest request) {
+        return ResponseEntity.ok(syntheticDataGenerator.generate(request != null ? request : new SyntheticDataRequest()));
+    }
+}
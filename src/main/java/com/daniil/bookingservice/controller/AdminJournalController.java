@@ -0,0 +1,42 @@
+package com.daniil.bookingservice.controller;
+
+import com.daniil.bookingservice.journal.BookingJournal;
+import com.daniil.bookingservice.journal.JournalEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/journal")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "booking.journal.enabled", havingValue = "true")
+public class AdminJournalController {
+
+    private static final int MAX_LIMIT = 1_000;
+
+    private final BookingJournal journal;
+
+    /**
+     * GET /api/admin/journal?fromSequence=1&limit=100 — записи журнала по порядку, для постраничного replay.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<List<JournalEntry>> read(@RequestParam(defaultValue = "1") long fromSequence,
+                                                   @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(journal.read(fromSequence, Math.min(Math.max(limit, 1), MAX_LIMIT)));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/bookings/{id}")
+    public ResponseEntity<List<JournalEntry>> history(@PathVariable Long id) {
+        return ResponseEntity.ok(journal.history(id));
+    }
+}
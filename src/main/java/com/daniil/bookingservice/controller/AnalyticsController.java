@@ -0,0 +1,55 @@
+package com.daniil.bookingservice.controller;
+
+import com.daniil.bookingservice.dto.AnalyticsGranularity;
+import com.daniil.bookingservice.dto.OccupancyStats;
+import com.daniil.bookingservice.service.AnalyticsService;
+import com.daniil.bookingservice.service.BookingRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private static final int MAX_RANGE_DAYS = 3 * 366;
+
+    private final AnalyticsService analyticsService;
+    private final BookingRollupService bookingRollupService;
+
+    /**
+     * GET /api/admin/analytics/occupancy?from=2025-01-01&to=2025-12-31&granularity=MONTH[&roomId=101]
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/occupancy")
+    public ResponseEntity<List<OccupancyStats>> occupancy(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") AnalyticsGranularity granularity,
+            @RequestParam(required = false) Long roomId) {
+        if (to.isBefore(from) || from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date range must be non-empty and at most " + MAX_RANGE_DAYS + " days");
+        }
+        return ResponseEntity.ok(analyticsService.occupancy(from, to, granularity, roomId));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRollup() {
+        return ResponseEntity.ok(Map.of("rows", bookingRollupService.rebuild()));
+    }
+}
@@ -1,12 +1,22 @@
 package com.daniil.bookingservice.controller;
 
+import com.daniil.bookingservice.dto.RefreshTokenRequest;
 import com.daniil.bookingservice.dto.UserDto;
+import com.daniil.bookingservice.security.ClientIpResolver;
+import com.daniil.bookingservice.security.RateLimiter;
+import com.daniil.bookingservice.security.TokenRevocationList;
+import com.daniil.bookingservice.security.TooManyRequestsException;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.daniil.bookingservice.service.AuthService;
 
@@ -16,6 +26,9 @@ import com.daniil.bookingservice.service.AuthService;
 public class AuthController {
 
     private final AuthService authService;
+    private final RateLimiter rateLimiter;
+    private final TokenRevocationList tokenRevocationList;
+    private final ClientIpResolver clientIpResolver;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody UserDto request) {
@@ -23,9 +36,32 @@ public class AuthController {
     }
 
     @PostMapping("/auth")
-    public ResponseEntity<?> auth(@RequestBody UserDto request) {
+    public ResponseEntity<?> auth(@RequestBody UserDto request, HttpServletRequest httpRequest) {
+        // лимит до проверки пароля: каждая попытка стоит одного BCrypt
+        RateLimiter.Decision decision = rateLimiter.tryAcquireAuth(request.getUsername(), clientIpResolver.resolve(httpRequest));
+        if (!decision.allowed()) {
+            throw new TooManyRequestsException(decision.retryAfterSeconds());
+        }
         return authService.authenticate(request);
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request) {
+        return authService.refresh(request);
+    }
+
+    /**
+     * Отзывает текущий access-токен до истечения его exp и все refresh-токены пользователя.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal Jwt jwt) {
+        if (jwt == null || jwt.getId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token has no jti and cannot be revoked");
+        }
+        tokenRevocationList.revoke(jwt.getId(), jwt.getExpiresAt());
+        authService.logout(jwt.getSubject());
+        return ResponseEntity.noContent().build();
+    }
 }
 
 
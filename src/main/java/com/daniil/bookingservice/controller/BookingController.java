@@ -1,13 +1,29 @@
 package com.daniil.bookingservice.controller;
 
 import com.daniil.bookingservice.dto.BookingRequest;
+import com.daniil.bookingservice.dto.BookingResponse;
+import com.daniil.bookingservice.dto.BookingStatusUpdate;
+import com.daniil.bookingservice.dto.RoomAvailability;
 import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.replica.ReadYourWrites;
+import com.daniil.bookingservice.security.AuthenticatedUser;
+import com.daniil.bookingservice.service.BookingRequestCoalescer;
 import com.daniil.bookingservice.service.BookingService;
+import com.daniil.bookingservice.service.RoomAvailabilityCalendar;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.stream.BookingStatusBroadcaster;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -15,21 +31,65 @@ import org.springframework.http.ResponseEntity;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final RoomAvailabilityCalendar availabilityCalendar;
+    private final BookingRequestCoalescer requestCoalescer;
+    private final ShardRouter shardRouter;
+    private final BookingStatusBroadcaster statusBroadcaster;
 
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@RequestBody BookingRequest request) {
-        Booking booking = bookingService.createBooking(request, 1L); // временно userId=1
-        return ResponseEntity.ok(booking);
+    public ResponseEntity<BookingResponse> createBooking(@RequestBody BookingRequest request) {
+        Long userId = AuthenticatedUser.id();
+        // повторы с тем же correlationId ждут результата первого запроса; повторы ищутся на шарде пользователя
+        Booking booking = requestCoalescer.execute(request.getCorrelationId(),
+                () -> shardRouter.callOn(shardRouter.shardForUser(userId),
+                        () -> bookingService.createBooking(request, userId)));
+        return ResponseEntity.ok(BookingResponse.from(booking));
+    }
+
+    /**
+     * Номера, свободные с from (заезд) до to (выезд), по календарю занятости в памяти.
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/availability")
+    public ResponseEntity<RoomAvailability> availability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(new RoomAvailability(from, to, availabilityCalendar.freeRooms(from, to)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @GetMapping("/{id}")
-    public ResponseEntity<Booking> getBooking(@PathVariable Long id) {
-        return bookingService.getBooking(id)
+    public ResponseEntity<BookingResponse> getBooking(@PathVariable Long id) {
+        return shardRouter.callOn(shardRouter.shardForBookingId(id), () -> bookingService.getBooking(id))
+                .map(BookingResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
-}
 
+    /**
+     * text/event-stream с переходами статуса бронирования вместо опроса GET /{id}: первым событием
+     * текущий статус (из основной БД, не с реплики), поток закрывается после CANCELLED.
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter bookingEvents(@PathVariable Long id) {
+        return statusBroadcaster.subscribeToBooking(id, () -> ReadYourWrites.onPrimary(() ->
+                        shardRouter.callOn(shardRouter.shardForBookingId(id), () -> bookingService.getBooking(id)))
+                        .map(BookingStatusUpdate::from))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking " + id + " not found"));
+    }
 
+    /**
+     * Переходы статуса всех бронирований вызывающего, начиная с момента подписки.
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter myBookingEvents() {
+        return statusBroadcaster.subscribeToUser(AuthenticatedUser.id());
+    }
+}
@@ -1,8 +1,10 @@
 package com.daniil.bookingservice.controller;
 
+import com.daniil.bookingservice.loadbalancer.HotelServiceLoadBalancerConfig;
 import jakarta.ws.rs.core.HttpHeaders;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.core.Authentication;
@@ -11,6 +13,7 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@LoadBalancerClient(name = "hotel-service", configuration = HotelServiceLoadBalancerConfig.class)
 public class RestTemplateConfig {
 
     @Bean
@@ -0,0 +1,21 @@
+package com.daniil.bookingservice.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+public enum AnalyticsGranularity {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * Начало периода, в который попадает день (неделя — ISO, с понедельника).
+     */
+    public LocalDate periodStart(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(DayOfWeek.MONDAY);
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+}
@@ -1,10 +1,8 @@
 package com.daniil.bookingservice.dto;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-
-@Data
-@AllArgsConstructor
-public class AuthResponse {
-    private String token;
+/**
+ * @param token        короткоживущий access-токен (JWT)
+ * @param refreshToken одноразовый токен для POST /api/user/refresh
+ */
+public record AuthResponse(String token, String refreshToken) {
 }
@@ -0,0 +1,35 @@
+package com.daniil.bookingservice.dto;
+
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ответ API по бронированию: снимок полей сущности, без JPA-прокси и ленивых связей.
+ * Сериализуется BookingResponseSerializer.
+ */
+public record BookingResponse(
+        Long id,
+        Long userId,
+        Long roomId,
+        LocalDate startDate,
+        LocalDate endDate,
+        BookingStatus status,
+        LocalDateTime createdAt,
+        String correlationId
+) {
+
+    public static BookingResponse from(Booking booking) {
+        return new BookingResponse(
+                booking.getId(),
+                booking.getUserId(),
+                booking.getRoomId(),
+                booking.getStartDate(),
+                booking.getEndDate(),
+                booking.getStatus(),
+                booking.getCreatedAt(),
+                booking.getCorrelationId());
+    }
+}
@@ -0,0 +1,100 @@
+package com.daniil.bookingservice.dto;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сериализация BookingResponse без рефлексии: имена полей заранее закодированы (SerializedString),
+ * статусы и даты берутся из кэша. Формат совпадает со стандартным Jackson + JavaTimeModule (ISO-строки).
+ */
+@JsonComponent
+public class BookingResponseSerializer extends JsonSerializer<BookingResponse> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString USER_ID = new SerializedString("userId");
+    private static final SerializedString ROOM_ID = new SerializedString("roomId");
+    private static final SerializedString START_DATE = new SerializedString("startDate");
+    private static final SerializedString END_DATE = new SerializedString("endDate");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString CORRELATION_ID = new SerializedString("correlationId");
+
+    private static final Map<BookingStatus, SerializedString> STATUSES = new EnumMap<>(BookingStatus.class);
+
+    static {
+        for (BookingStatus status : BookingStatus.values()) {
+            STATUSES.put(status, new SerializedString(status.name()));
+        }
+    }
+
+    /** Даты заезда/выезда укладываются в несколько лет, кэш ограничен на случай мусорных данных */
+    private static final int MAX_CACHED_DATES = 4_096;
+
+    private final Map<LocalDate, SerializedString> dates = new ConcurrentHashMap<>();
+
+    @Override
+    public void serialize(BookingResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        gen.writeFieldName(ID);
+        writeLong(gen, value.id());
+        gen.writeFieldName(USER_ID);
+        writeLong(gen, value.userId());
+        gen.writeFieldName(ROOM_ID);
+        writeLong(gen, value.roomId());
+        gen.writeFieldName(START_DATE);
+        writeDate(gen, value.startDate());
+        gen.writeFieldName(END_DATE);
+        writeDate(gen, value.endDate());
+        gen.writeFieldName(STATUS);
+        if (value.status() != null) {
+            gen.writeString(STATUSES.get(value.status()));
+        } else {
+            gen.writeNull();
+        }
+        gen.writeFieldName(CREATED_AT);
+        LocalDateTime createdAt = value.createdAt();
+        if (createdAt != null) {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt));
+        } else {
+            gen.writeNull();
+        }
+        gen.writeFieldName(CORRELATION_ID);
+        gen.writeString(value.correlationId());
+        gen.writeEndObject();
+    }
+
+    private void writeDate(JsonGenerator gen, LocalDate date) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+            return;
+        }
+        SerializedString cached = dates.get(date);
+        if (cached == null) {
+            cached = new SerializedString(date.toString());
+            if (dates.size() < MAX_CACHED_DATES) {
+                dates.putIfAbsent(date, cached);
+            }
+        }
+        gen.writeString(cached);
+    }
+
+    private static void writeLong(JsonGenerator gen, Long value) throws IOException {
+        if (value != null) {
+            gen.writeNumber(value);
+        } else {
+            gen.writeNull();
+        }
+    }
+}
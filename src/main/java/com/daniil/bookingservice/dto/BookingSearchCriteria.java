@@ -0,0 +1,26 @@
+package com.daniil.bookingservice.dto;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Фильтры поиска; незаданные поля не участвуют. from/to — пересечение проживания с [from, to).
+ * beforeId — курсор: id последнего бронирования предыдущей страницы.
+ */
+@Data
+public class BookingSearchCriteria {
+    private BookingStatus status;
+    private Long roomId;
+    private Long userId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private Long beforeId;
+}
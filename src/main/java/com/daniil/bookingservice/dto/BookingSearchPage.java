@@ -0,0 +1,9 @@
+package com.daniil.bookingservice.dto;
+
+import java.util.List;
+
+/**
+ * Страница поиска без общего количества; nextBeforeId передаётся следующим запросом как beforeId.
+ */
+public record BookingSearchPage(List<BookingResponse> items, boolean hasNext, Long nextBeforeId) {
+}
@@ -0,0 +1,28 @@
+package com.daniil.bookingservice.dto;
+
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+
+/**
+ * Событие status в потоке /api/bookings/.../events. previousStatus == null — создание бронирования
+ * или текущее состояние, отправленное при подписке.
+ */
+public record BookingStatusUpdate(
+        Long bookingId,
+        Long userId,
+        Long roomId,
+        BookingStatus previousStatus,
+        BookingStatus status
+) {
+
+    public static BookingStatusUpdate from(BookingStatusChangedEvent event) {
+        return new BookingStatusUpdate(event.bookingId(), event.userId(), event.roomId(),
+                event.previousStatus(), event.status());
+    }
+
+    public static BookingStatusUpdate from(Booking booking) {
+        return new BookingStatusUpdate(booking.getId(), booking.getUserId(), booking.getRoomId(),
+                null, booking.getStatus());
+    }
+}
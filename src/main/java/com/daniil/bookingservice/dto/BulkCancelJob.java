@@ -0,0 +1,29 @@
+package com.daniil.bookingservice.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Состояние задачи массовой отмены. Счётчики пишет только поток задачи, читают — запросы статуса.
+ */
+@Data
+public class BulkCancelJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String jobId;
+    private final BulkCancelRequest request;
+    private final Instant startedAt;
+    private volatile State state = State.RUNNING;
+    private volatile long cancelled;
+    private volatile long roomsReleased;
+    private volatile long releaseFailures;
+    private volatile int chunks;
+    private volatile Instant finishedAt;
+    private volatile String error;
+}
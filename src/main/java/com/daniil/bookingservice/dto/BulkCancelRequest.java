@@ -0,0 +1,21 @@
+package com.daniil.bookingservice.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Отмена всех PENDING/CONFIRMED бронирований номеров roomIds, пересекающихся с [from, to); to — как дата выезда.
+ */
+@Data
+public class BulkCancelRequest {
+    private List<Long> roomIds;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+}
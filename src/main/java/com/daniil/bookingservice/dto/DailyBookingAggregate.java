@@ -0,0 +1,20 @@
+package com.daniil.bookingservice.dto;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Агрегат бронирований за день заезда по номеру и статусу (результат GROUP BY в БД).
+ */
+@Data
+@AllArgsConstructor
+public class DailyBookingAggregate {
+    private LocalDate day;
+    private Long roomId;
+    private BookingStatus status;
+    private Long bookings;
+    private Long nights;
+}
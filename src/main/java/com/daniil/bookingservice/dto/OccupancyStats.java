@@ -0,0 +1,45 @@
+package com.daniil.bookingservice.dto;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Статистика за период по номеру. roomId == null — бронирования, для которых номер не был выделен.
+ */
+@Data
+@NoArgsConstructor
+public class OccupancyStats {
+    private LocalDate periodStart;
+    private Long roomId;
+    private long totalBookings;
+    private long confirmedBookings;
+    private long confirmedNights;
+    private long cancelledBookings;
+    private long failedAllocations;
+
+    public OccupancyStats(LocalDate periodStart, Long roomId) {
+        this.periodStart = periodStart;
+        this.roomId = roomId;
+    }
+
+    public void add(DailyBookingAggregate aggregate) {
+        long bookings = aggregate.getBookings() != null ? aggregate.getBookings() : 0;
+        totalBookings += bookings;
+        if (aggregate.getStatus() == BookingStatus.CONFIRMED) {
+            confirmedBookings += bookings;
+            confirmedNights += aggregate.getNights() != null ? aggregate.getNights() : 0;
+        } else if (aggregate.getStatus() == BookingStatus.CANCELLED) {
+            cancelledBookings += bookings;
+            if (aggregate.getRoomId() == null) {
+                failedAllocations += bookings;
+            }
+        }
+    }
+
+    public double getCancellationRate() {
+        return totalBookings == 0 ? 0.0 : (double) cancelledBookings / totalBookings;
+    }
+}
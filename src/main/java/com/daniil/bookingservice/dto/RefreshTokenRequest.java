@@ -0,0 +1,4 @@
+package com.daniil.bookingservice.dto;
+
+public record RefreshTokenRequest(String refreshToken) {
+}
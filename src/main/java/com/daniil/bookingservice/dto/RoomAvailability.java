@@ -0,0 +1,15 @@
+package com.daniil.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class RoomAvailability {
+    private LocalDate from;
+    private LocalDate to;
+    private List<Long> freeRoomIds;
+}
@@ -0,0 +1,31 @@
+package com.daniil.bookingservice.dto;
+
+import lombok.Data;
+
+/**
+ * Параметры генератора синтетических данных (профиль synthetic-data или POST /api/admin/synthetic-data).
+ * Значения по умолчанию дают ~1 млн бронирований.
+ */
+@Data
+public class SyntheticDataRequest {
+    private int users = 10_000;
+    private int bookings = 1_000_000;
+    private int rooms = 500;
+
+    private int workers = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    private int batchSize = 1_000;
+
+    /** Диапазон дат заезда относительно сегодняшнего дня */
+    private int daysBack = 730;
+    private int daysForward = 365;
+
+    /** Доли статусов; остаток — PENDING */
+    private double confirmedRate = 0.70;
+    private double cancelledRate = 0.20;
+    /** Доля отмен без выделенного номера (сбой allocate) */
+    private double failedAllocationRate = 0.40;
+    /** Доля повторных запросов gateway с уже использованным correlationId */
+    private double duplicateRate = 0.02;
+
+    private long seed = 42L;
+}
@@ -0,0 +1,13 @@
+package com.daniil.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SyntheticDataResult {
+    private long usersInserted;
+    private long bookingsInserted;
+    private long duplicateRequests;
+    private long elapsedMs;
+}
@@ -0,0 +1,25 @@
+package com.daniil.bookingservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String tokenHash; // SHA-256 (hex), сам токен не хранится
+    private String familyId;
+    private Long userId;
+    private LocalDateTime expiresAt;
+    private LocalDateTime usedAt; // != null — токен уже обменян
+    private boolean revoked;
+}
@@ -0,0 +1,41 @@
+package com.daniil.bookingservice.event;
+
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Смена статуса бронирования (в том числе создание: previousStatus == null).
+ * Публикуется внутри транзакции BookingService; снимок полей, а не сама сущность,
+ * чтобы слушатели после commit не видели последующих изменений.
+ */
+public record BookingStatusChangedEvent(
+        Long bookingId,
+        Long userId,
+        String correlationId,
+        LocalDate startDate,
+        LocalDate endDate,
+        Long previousRoomId,
+        BookingStatus previousStatus,
+        Long roomId,
+        BookingStatus status
+) {
+
+    public static BookingStatusChangedEvent of(Booking booking, Long previousRoomId, BookingStatus previousStatus) {
+        return new BookingStatusChangedEvent(
+                booking.getId(),
+                booking.getUserId(),
+                booking.getCorrelationId(),
+                booking.getStartDate(),
+                booking.getEndDate(),
+                previousRoomId,
+                previousStatus,
+                booking.getRoomId(),
+                booking.getStatus());
+    }
+
+    public boolean isCreation() {
+        return previousStatus == null;
+    }
+}
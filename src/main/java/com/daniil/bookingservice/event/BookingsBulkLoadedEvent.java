@@ -0,0 +1,8 @@
+package com.daniil.bookingservice.event;
+
+/**
+ * Бронирования загружены в обход BookingService (тестовые или синтетические данные) —
+ * производные структуры (rollup, календарь занятости) нужно пересчитать с нуля.
+ */
+public record BookingsBulkLoadedEvent(String source) {
+}
@@ -0,0 +1,48 @@
+package com.daniil.bookingservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Фаза BookingService.createBooking: idempotency, allocate, persist, confirm, fallback.
+ */
+@Name("com.daniil.bookingservice.BookingPhase")
+@Label("Booking Phase")
+@Category({"Booking Service", "Booking"})
+@Description("Фаза создания бронирования")
+@StackTrace(false)
+public class BookingPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Correlation Id")
+    String correlationId;
+
+    @Label("Room Id")
+    @Description("0 — номер не известен")
+    long roomId;
+
+    @Label("Outcome")
+    String outcome;
+
+    public static BookingPhaseEvent begin(String phase, String correlationId) {
+        BookingPhaseEvent event = new BookingPhaseEvent();
+        event.phase = phase;
+        event.correlationId = correlationId;
+        event.begin();
+        return event;
+    }
+
+    public void end(Long roomId, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.roomId = roomId != null ? roomId : 0;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.daniil.bookingservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * Одна попытка HTTP-вызова hotel-service (каждый повтор HotelServiceRetry — отдельное событие).
+ */
+@Name("com.daniil.bookingservice.HotelServiceCall")
+@Label("Hotel Service Call")
+@Category({"Booking Service", "Hotel Service"})
+@Description("HTTP-вызов hotel-service")
+@StackTrace(false)
+public class HotelServiceCallEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Correlation Id")
+    String correlationId;
+
+    @Label("Room Id")
+    @Description("0 — номер не известен; для allocate — выделенный номер")
+    long roomId;
+
+    @Label("Outcome")
+    @Description("ok, empty или простое имя исключения")
+    String outcome;
+
+    public static <T> T call(String operation, String correlationId, Long roomId, Supplier<T> call) {
+        HotelServiceCallEvent event = new HotelServiceCallEvent();
+        event.begin();
+        String outcome = "error";
+        T result = null;
+        try {
+            result = call.get();
+            outcome = result == null ? "empty" : "ok";
+            return result;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.correlationId = correlationId;
+                event.roomId = roomId != null ? roomId : result instanceof Long allocated ? allocated : 0;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    public static void run(String operation, String correlationId, Long roomId, Runnable call) {
+        call(operation, correlationId, roomId, () -> {
+            call.run();
+            return Boolean.TRUE;
+        });
+    }
+}
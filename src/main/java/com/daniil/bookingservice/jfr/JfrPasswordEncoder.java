@@ -0,0 +1,60 @@
+package com.daniil.bookingservice.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder, который пишет PasswordHashEvent на каждый encode/matches делегата.
+ * correlationId — traceId запроса из MDC (CorrelationIdFilter).
+ */
+@RequiredArgsConstructor
+public class JfrPasswordEncoder implements PasswordEncoder {
+
+    private static final String TRACE_ID = "traceId";
+
+    private final PasswordEncoder delegate;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            String encoded = delegate.encode(rawPassword);
+            outcome = "ok";
+            return encoded;
+        } finally {
+            commit(event, "encode", outcome);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            outcome = matches ? "match" : "mismatch";
+            return matches;
+        } finally {
+            commit(event, "matches", outcome);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static void commit(PasswordHashEvent event, String operation, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.correlationId = MDC.get(TRACE_ID);
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.daniil.bookingservice.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/jfr — запись JFR по запросу (только ADMIN, см. SecurityConfig):
+ * POST — старт на durationSeconds (не дольше booking.jfr.max-duration), DELETE — досрочная остановка,
+ * GET — состояние, GET /{id} — выгрузка .jfr (можно и во время записи).
+ *
+ * <p>Одновременно хранится одна запись; новый старт закрывает предыдущую.
+ */
+@Slf4j
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private final String settings;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+
+    private Recording recording;
+    private Path lastDump;
+
+    public JfrRecordingEndpoint(@Value("${booking.jfr.settings:profile}") String settings,
+                                @Value("${booking.jfr.default-duration:60s}") Duration defaultDuration,
+                                @Value("${booking.jfr.max-duration:10m}") Duration maxDuration,
+                                @Value("${booking.jfr.max-size:200MB}") DataSize maxSize) {
+        this.settings = settings;
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        return describe(recording);
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Long durationSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(describe(recording), HttpStatus.CONFLICT.value());
+        }
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : defaultDuration;
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            duration = maxDuration;
+        }
+
+        Recording fresh;
+        try {
+            fresh = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JFR settings '" + settings + "' not available", e);
+        }
+        fresh.setName("booking-service");
+        fresh.setToDisk(true);
+        fresh.setDuration(duration);
+        fresh.setMaxSize(maxSize.toBytes());
+        closeCurrent();
+        fresh.start();
+        recording = fresh;
+        log.info("JFR recording {} started for {} (settings={})", fresh.getId(), duration, settings);
+        return new WebEndpointResponse<>(describe(fresh), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("JFR recording {} stopped", recording.getId());
+        }
+        return describe(recording);
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+        if (recording == null || recording.getId() != id
+                || recording.getState() == RecordingState.NEW || recording.getState() == RecordingState.CLOSED) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        deleteLastDump();
+        lastDump = Files.createTempFile("booking-service-" + id + "-", ".jfr");
+        recording.dump(lastDump);
+        return new WebEndpointResponse<>(new FileSystemResource(lastDump), WebEndpointResponse.STATUS_OK);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closeCurrent();
+        deleteLastDump();
+    }
+
+    private void closeCurrent() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void deleteLastDump() {
+        if (lastDump != null) {
+            try {
+                Files.deleteIfExists(lastDump);
+            } catch (IOException e) {
+                log.warn("Failed to delete JFR dump {}: {}", lastDump, e.getMessage());
+            }
+            lastDump = null;
+        }
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (recording == null) {
+            result.put("state", "NONE");
+            return result;
+        }
+        result.put("id", recording.getId());
+        result.put("state", recording.getState());
+        result.put("startTime", recording.getStartTime());
+        result.put("stopTime", recording.getStopTime());
+        result.put("duration", recording.getDuration());
+        result.put("size", recording.getSize());
+        return result;
+    }
+}
@@ -0,0 +1,41 @@
+package com.daniil.bookingservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Подпись access-токена в JwtTokenProvider.
+ */
+@Name("com.daniil.bookingservice.JwtSign")
+@Label("JWT Sign")
+@Category({"Booking Service", "Security"})
+@StackTrace(false)
+public class JwtSignEvent extends jdk.jfr.Event {
+
+    @Label("Subject")
+    String subject;
+
+    @Label("Correlation Id")
+    String correlationId;
+
+    @Label("Outcome")
+    String outcome;
+
+    public static JwtSignEvent begin(String subject) {
+        JwtSignEvent event = new JwtSignEvent();
+        event.subject = subject;
+        event.begin();
+        return event;
+    }
+
+    public void end(String correlationId, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.correlationId = correlationId;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.daniil.bookingservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Вычисление BCrypt: encode при регистрации, matches при входе.
+ */
+@Name("com.daniil.bookingservice.PasswordHash")
+@Label("Password Hash")
+@Category({"Booking Service", "Security"})
+@StackTrace(false)
+public class PasswordHashEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Correlation Id")
+    String correlationId;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,363 @@
+package com.daniil.bookingservice.journal;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only журнал переходов бронирований в сегментах фиксированного размера, отображённых в память.
+ *
+ * <p>Запись: [int длина][long seq][long время][long bookingId][long roomId|-1][byte переход][byte статус|-1]
+ * [short длина correlationId][correlationId][int crc32]. Нулевая длина или неверный crc — конец данных сегмента.
+ *
+ * <p>append только копирует запись в mmap-буфер под коротким lock. fsync (MappedByteBuffer.force)
+ * делает фоновый поток раз в flush-interval сразу для всех накопившихся записей (group commit);
+ * при sync-writes=true append ждёт ближайшего такого fsync, но не дольше sync-timeout-ms. Сегмент закрывается,
+ * когда в нём не хватает места, а старше max-segments удаляются.
+ *
+ * <p>Включается явно (booking.journal.enabled=true) и требует booking.journal.directory — каталог не должен
+ * зависеть от рабочего каталога процесса.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "booking.journal.enabled", havingValue = "true")
+public class BookingJournal {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int FIXED_PAYLOAD = 8 + 8 + 8 + 8 + 1 + 1 + 2 + 4;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean syncWrites;
+    private final long syncTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Object durableMonitor = new Object();
+    private final ScheduledExecutorService flusher;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSequence;
+    private volatile long writtenSequence;
+    private volatile long durableSequence;
+
+    public BookingJournal(@Value("${booking.journal.directory}") String directory,
+                          @Value("${booking.journal.segment-size:64MB}") DataSize segmentSize,
+                          @Value("${booking.journal.max-segments:16}") int maxSegments,
+                          @Value("${booking.journal.flush-interval-ms:10}") long flushIntervalMs,
+                          @Value("${booking.journal.sync-writes:false}") boolean syncWrites,
+                          @Value("${booking.journal.sync-timeout-ms:1000}") long syncTimeoutMs) {
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.maxSegments = Math.max(1, maxSegments);
+        this.syncWrites = syncWrites;
+        this.syncTimeoutMs = syncTimeoutMs;
+        try {
+            Files.createDirectories(this.directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open booking journal in " + directory, e);
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "booking-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return номер записи в журнале
+     */
+    public long append(long bookingId, String correlationId, BookingTransition transition, Long roomId, BookingStatus status) {
+        byte[] correlation = correlationId != null ? correlationId.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int length = FIXED_PAYLOAD + correlation.length;
+        if (4 + length > segmentSize || correlation.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal record does not fit into a segment");
+        }
+
+        long sequence;
+        lock.lock();
+        try {
+            if (buffer.remaining() < 4 + length) {
+                roll();
+            }
+            sequence = nextSequence++;
+            ByteBuffer record = ByteBuffer.allocate(4 + length);
+            record.putInt(length)
+                    .putLong(sequence)
+                    .putLong(System.currentTimeMillis())
+                    .putLong(bookingId)
+                    .putLong(roomId != null ? roomId : -1)
+                    .put((byte) transition.ordinal())
+                    .put((byte) (status != null ? status.ordinal() : -1))
+                    .putShort((short) correlation.length)
+                    .put(correlation);
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 4, length - 4);
+            record.putInt((int) crc.getValue());
+            buffer.put(record.flip());
+            writtenSequence = sequence;
+        } finally {
+            lock.unlock();
+        }
+
+        if (syncWrites && !awaitDurable(sequence, syncTimeoutMs)) {
+            // запись уже в mmap-буфере: её сбросит следующий успешный flush или close
+            log.warn("Booking journal record {} not fsynced within {} ms", sequence, syncTimeoutMs);
+        }
+        return sequence;
+    }
+
+    /**
+     * Ждёт fsync записи с номером sequence (group commit — один force на все ожидающие записи).
+     *
+     * @return false — не дождались за timeoutMs или поток прерван
+     */
+    public boolean awaitDurable(long sequence, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (durableMonitor) {
+            while (durableSequence < sequence) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                try {
+                    durableMonitor.wait(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Последовательное чтение с записи fromSequence (включительно) в порядке записи.
+     */
+    public void replay(long fromSequence, Consumer<JournalEntry> consumer) {
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            readSegment(segments.get(i), entry -> {
+                if (entry.sequence() >= fromSequence) {
+                    consumer.accept(entry);
+                }
+            });
+        }
+    }
+
+    public List<JournalEntry> read(long fromSequence, int limit) {
+        List<JournalEntry> entries = new ArrayList<>();
+        try {
+            replay(fromSequence, entry -> {
+                if (entries.size() >= limit) {
+                    throw new StopReplay();
+                }
+                entries.add(entry);
+            });
+        } catch (StopReplay ignored) {
+            // набрали limit записей
+        }
+        return entries;
+    }
+
+    /**
+     * История одного бронирования — полный проход по журналу, для аудита.
+     */
+    public List<JournalEntry> history(long bookingId) {
+        List<JournalEntry> entries = new ArrayList<>();
+        replay(0, entry -> {
+            if (entry.bookingId() == bookingId) {
+                entries.add(entry);
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Исключение из задачи scheduleWithFixedDelay отменило бы все следующие запуски, и журнал перестал бы
+     * сбрасываться на диск.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Booking journal flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    void flush() {
+        MappedByteBuffer target;
+        long sequence;
+        lock.lock();
+        try {
+            target = buffer;
+            sequence = writtenSequence;
+        } finally {
+            lock.unlock();
+        }
+        if (sequence <= durableSequence) {
+            return;
+        }
+        target.force();
+        markDurable(sequence);
+    }
+
+    @PreDestroy
+    public void close() {
+        flusher.shutdownNow();
+        lock.lock();
+        try {
+            buffer.force();
+            markDurable(writtenSequence);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close booking journal: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            open(1);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        long[] lastSequence = {firstSequence(last) - 1};
+        int end = readSegment(last, entry -> lastSequence[0] = entry.sequence());
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.position(end);
+        nextSequence = lastSequence[0] + 1;
+        writtenSequence = lastSequence[0];
+        durableSequence = lastSequence[0];
+        log.info("Booking journal opened at {}: {} segments, next sequence {}", directory, segments.size(), nextSequence);
+    }
+
+    private void roll() {
+        try {
+            buffer.force();
+            markDurable(writtenSequence);
+            channel.close();
+            open(nextSequence);
+            List<Path> segments = segments();
+            for (int i = 0; i < segments.size() - maxSegments; i++) {
+                Files.deleteIfExists(segments.get(i));
+                log.info("Booking journal segment {} removed by retention", segments.get(i).getFileName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Booking journal rollover failed", e);
+        }
+    }
+
+    private void open(long firstSequence) throws IOException {
+        Path segment = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        nextSequence = firstSequence;
+    }
+
+    private void markDurable(long sequence) {
+        synchronized (durableMonitor) {
+            if (sequence > durableSequence) {
+                durableSequence = sequence;
+            }
+            durableMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * @return позиция после последней целой записи
+     */
+    private int readSegment(Path segment, Consumer<JournalEntry> consumer) {
+        try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer data = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            CRC32 crc = new CRC32();
+            while (data.remaining() >= 4 + FIXED_PAYLOAD) {
+                int start = data.position();
+                int length = data.getInt();
+                if (length < FIXED_PAYLOAD || length > data.remaining()) {
+                    return start;
+                }
+                crc.reset();
+                crc.update(data.slice(data.position(), length - 4));
+                if ((int) crc.getValue() != data.getInt(data.position() + length - 4)) {
+                    return start;
+                }
+
+                long sequence = data.getLong();
+                long timestamp = data.getLong();
+                long bookingId = data.getLong();
+                long roomId = data.getLong();
+                byte transition = data.get();
+                byte status = data.get();
+                byte[] correlation = new byte[data.getShort()];
+                data.get(correlation);
+                data.getInt();
+                consumer.accept(new JournalEntry(
+                        sequence,
+                        Instant.ofEpochMilli(timestamp),
+                        bookingId,
+                        new String(correlation, StandardCharsets.UTF_8),
+                        BookingTransition.values()[transition],
+                        roomId >= 0 ? roomId : null,
+                        status >= 0 ? BookingStatus.values()[status] : null));
+            }
+            return data.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal segment " + segment, e);
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal segments in " + directory, e);
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class StopReplay extends RuntimeException {
+        StopReplay() {
+            super(null, null, false, false);
+        }
+    }
+}
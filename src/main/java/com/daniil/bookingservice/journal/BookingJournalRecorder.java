@@ -0,0 +1,51 @@
+package com.daniil.bookingservice.journal;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Переводит смены статуса в шаги журнала. Пишет после commit: откатившиеся попытки в журнал не попадают.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "booking.journal.enabled", havingValue = "true")
+public class BookingJournalRecorder {
+
+    private final BookingJournal journal;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        if (event.bookingId() == null) {
+            return;
+        }
+        for (BookingTransition transition : transitions(event)) {
+            journal.append(event.bookingId(), event.correlationId(), transition, event.roomId(), event.status());
+        }
+    }
+
+    static List<BookingTransition> transitions(BookingStatusChangedEvent event) {
+        List<BookingTransition> transitions = new ArrayList<>(2);
+        if (event.isCreation()) {
+            transitions.add(BookingTransition.REQUESTED);
+        }
+        if (event.roomId() != null && event.previousRoomId() == null) {
+            transitions.add(BookingTransition.ALLOCATED);
+        }
+        if (event.status() == BookingStatus.CONFIRMED && event.previousStatus() != BookingStatus.CONFIRMED) {
+            transitions.add(BookingTransition.CONFIRMED);
+        } else if (event.status() == BookingStatus.CANCELLED && event.previousStatus() != BookingStatus.CANCELLED) {
+            // отмена после выделения номера при неудачном подтверждении — компенсация
+            transitions.add(event.previousStatus() == BookingStatus.PENDING && event.roomId() != null
+                    ? BookingTransition.COMPENSATED
+                    : BookingTransition.CANCELLED);
+        }
+        return transitions;
+    }
+}
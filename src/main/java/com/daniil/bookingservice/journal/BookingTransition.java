@@ -0,0 +1,12 @@
+package com.daniil.bookingservice.journal;
+
+/**
+ * Шаги жизненного цикла бронирования, которые пишутся в журнал.
+ */
+public enum BookingTransition {
+    REQUESTED,
+    ALLOCATED,
+    CONFIRMED,
+    COMPENSATED,
+    CANCELLED
+}
@@ -0,0 +1,16 @@
+package com.daniil.bookingservice.journal;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+
+import java.time.Instant;
+
+public record JournalEntry(
+        long sequence,
+        Instant timestamp,
+        long bookingId,
+        String correlationId,
+        BookingTransition transition,
+        Long roomId,
+        BookingStatus status
+) {
+}
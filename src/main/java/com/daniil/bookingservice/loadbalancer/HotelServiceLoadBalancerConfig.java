@@ -0,0 +1,24 @@
+package com.daniil.bookingservice.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Конфигурация дочернего контекста LoadBalancer для hotel-service (подключается через @LoadBalancerClient
+ * в RestTemplateConfig). Намеренно без @Configuration: иначе бин попал бы во все клиенты.
+ */
+public class HotelServiceLoadBalancerConfig {
+
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory,
+                                                             LoadBalancerProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        ObjectProvider<ServiceInstanceListSupplier> suppliers =
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        return new LatencyAwareLoadBalancer(suppliers, serviceId, properties);
+    }
+}
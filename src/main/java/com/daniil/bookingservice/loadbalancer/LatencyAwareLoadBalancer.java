@@ -0,0 +1,194 @@
+package com.daniil.bookingservice.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Балансировщик hotel-service: power of two choices по стоимости peak-EWMA задержки × (запросов в полёте + 1).
+ *
+ * <p>Задержка и ошибки приходят через LoadBalancerLifecycle от BlockingLoadBalancerClient
+ * (@LoadBalanced RestTemplate). EWMA сразу поднимается до пика и затухает со временем, поэтому деградировавший
+ * экземпляр сразу теряет трафик, но через несколько decay снова пробуется. Экземпляр с долей ошибок выше порога
+ * исключается на ejection-time; если исключены все — выбор идёт из всех.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final LoadBalancerProperties properties;
+    private final LongSupplier nanoClock;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    String serviceId,
+                                    LoadBalancerProperties properties) {
+        this(supplierProvider, serviceId, properties, System::nanoTime);
+    }
+
+    LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                             String serviceId,
+                             LoadBalancerProperties properties,
+                             LongSupplier nanoClock) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::select);
+    }
+
+    Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No instances available for {}", serviceId);
+            return new EmptyResponse();
+        }
+        long now = nanoClock.getAsLong();
+        List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!stats(instance).isEjected(now)) {
+                healthy.add(instance);
+            }
+        }
+        List<ServiceInstance> candidates = healthy.isEmpty() ? instances : healthy;
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(stats(a).cost(now) <= stats(b).cost(now) ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(nanoClock.getAsLong());
+        }
+        stats(lbResponse.getServer()).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats instanceStats = stats(lbResponse.getServer());
+        instanceStats.inFlight.decrementAndGet();
+
+        long now = nanoClock.getAsLong();
+        long latencyNanos = -1;
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext timed && timed.getRequestStartTime() > 0) {
+            latencyNanos = now - timed.getRequestStartTime();
+        }
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || completionContext.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError();
+        instanceStats.record(now, latencyNanos, failed);
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(instance.getHost() + ":" + instance.getPort(), InstanceStats::new);
+    }
+
+    /**
+     * Статистика одного экземпляра. Запись под монитором: обновлений на порядки меньше, чем циклов CPU на них.
+     */
+    private final class InstanceStats {
+        private final String key;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos;
+        private long lastSampleAt;
+        private long windowStart;
+        private int windowRequests;
+        private int windowFailures;
+        private volatile long ejectedUntil;
+
+        private InstanceStats(String key) {
+            this.key = key;
+            this.windowStart = nanoClock.getAsLong();
+        }
+
+        boolean isEjected(long now) {
+            return ejectedUntil - now > 0;
+        }
+
+        synchronized double cost(long now) {
+            double decayed = ewmaNanos * Math.exp(-(double) (now - lastSampleAt) / properties.getDecay().toNanos());
+            return decayed * (Math.max(0, inFlight.get()) + 1);
+        }
+
+        synchronized void record(long now, long latencyNanos, boolean failed) {
+            if (latencyNanos >= 0) {
+                if (latencyNanos > ewmaNanos) {
+                    ewmaNanos = latencyNanos;
+                } else {
+                    double weight = Math.exp(-(double) (now - lastSampleAt) / properties.getDecay().toNanos());
+                    ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+                }
+                lastSampleAt = now;
+            }
+
+            if (now - windowStart > properties.getErrorWindow().toNanos()) {
+                windowStart = now;
+                windowRequests = 0;
+                windowFailures = 0;
+            }
+            windowRequests++;
+            if (failed) {
+                windowFailures++;
+            }
+            if (windowRequests >= properties.getMinRequests()
+                    && windowFailures >= windowRequests * properties.getErrorRateThreshold()) {
+                ejectedUntil = now + properties.getEjectionTime().toNanos();
+                log.warn("Ejecting {} instance {} for {}: {} of {} requests failed",
+                        serviceId, key, properties.getEjectionTime(), windowFailures, windowRequests);
+                windowStart = now;
+                windowRequests = 0;
+                windowFailures = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.daniil.bookingservice.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * booking.loadbalancer.*: выбор экземпляра hotel-service по задержке и исключение сбоящих экземпляров.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "booking.loadbalancer")
+public class LoadBalancerProperties {
+
+    /** Постоянная времени EWMA задержки: за это время старое значение теряет ~63% веса */
+    private Duration decay = Duration.ofSeconds(10);
+
+    /** Окно подсчёта ошибок экземпляра */
+    private Duration errorWindow = Duration.ofSeconds(10);
+
+    /** Меньше запросов в окне — доля ошибок не оценивается */
+    private int minRequests = 10;
+
+    /** Доля ошибок (сетевые и 5xx) в окне, при которой экземпляр исключается */
+    private double errorRateThreshold = 0.5;
+
+    /** На сколько экземпляр исключается из выбора */
+    private Duration ejectionTime = Duration.ofSeconds(30);
+}
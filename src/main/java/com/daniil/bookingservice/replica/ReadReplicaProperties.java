@@ -0,0 +1,33 @@
+package com.daniil.bookingservice.replica;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * booking.read-replica.*: чтения из транзакций readOnly = true идут в пул реплики, остальное — в основную БД.
+ * При шардировании реплика задаётся на каждом шарде (booking.sharding.shards[i].replica-url).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "booking.read-replica")
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+    private String username = "sa";
+    private String password = "";
+    private int maximumPoolSize = 10;
+
+    /** Прогнать миграции на реплике — только для локальной БД без репликации */
+    private boolean migrate = false;
+
+    /** Сколько после своей записи клиент читает из основной БД; 0 — не закреплять */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /** Больше клиентов не отслеживается — лишние читают с реплики */
+    private int stickyMaxClients = 100_000;
+}
@@ -0,0 +1,69 @@
+package com.daniil.bookingservice.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes поверх асинхронной реплики: клиент, только что изменивший данные, sticky-window читает
+ * из основной БД. Флаг потока проверяет ReplicaRoutingDataSource при выдаче соединения для readOnly-транзакции.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(ReadReplicaProperties properties) {
+        Duration stickyWindow = properties.getStickyWindow();
+        this.recentWriters = !stickyWindow.isNegative() && !stickyWindow.isZero()
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(stickyWindow)
+                        .maximumSize(properties.getStickyMaxClients())
+                        .build()
+                : null;
+    }
+
+    public static boolean primaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+
+    public void recordWrite(String client) {
+        if (recentWriters != null && client != null) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    public boolean isSticky(String client) {
+        return recentWriters != null && client != null && recentWriters.getIfPresent(client) != null;
+    }
+
+    /**
+     * Выполняет action, направляя и readOnly-транзакции в основную БД.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = pinPrimary(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            pinPrimary(previous);
+        }
+    }
+
+    /**
+     * @return предыдущее значение флага, его нужно вернуть в finally
+     */
+    static Boolean pinPrimary(Boolean pinned) {
+        Boolean previous = PRIMARY.get();
+        if (pinned != null) {
+            PRIMARY.set(pinned);
+        } else {
+            PRIMARY.remove();
+        }
+        return previous;
+    }
+}
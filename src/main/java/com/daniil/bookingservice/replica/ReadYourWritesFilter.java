@@ -0,0 +1,49 @@
+package com.daniil.bookingservice.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Успешный изменяющий запрос клиента (subject из JWT) закрепляет его чтения за основной БД на sticky-window.
+ * Стоит после BearerTokenAuthenticationFilter (регистрируется в SecurityConfig).
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final ReadYourWrites readYourWrites;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String client = authentication.getName();
+        boolean sticky = readYourWrites.isSticky(client);
+        Boolean previous = sticky ? ReadYourWrites.pinPrimary(Boolean.TRUE) : null;
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (sticky) {
+                ReadYourWrites.pinPrimary(previous);
+            }
+        }
+        if (!SAFE_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+            readYourWrites.recordWrite(client);
+        }
+    }
+}
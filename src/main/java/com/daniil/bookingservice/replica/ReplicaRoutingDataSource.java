@@ -0,0 +1,40 @@
+package com.daniil.bookingservice.replica;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Источник соединений для readOnly-транзакций: реплика, если поток не закреплён за основной БД (ReadYourWrites).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(replica);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReadYourWrites.primaryRequired() ? PRIMARY : REPLICA;
+    }
+
+    /**
+     * Соединение берётся при первом запросе, когда уже известно, readOnly ли транзакция:
+     * readOnly — из replica (или primary при закреплении), остальное — из primary. Без реплики — сам primary.
+     */
+    public static DataSource readWrite(DataSource primary, DataSource replica) {
+        if (replica == null) {
+            return primary;
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica));
+        return proxy;
+    }
+}
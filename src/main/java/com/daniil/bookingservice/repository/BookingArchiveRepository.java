@@ -0,0 +1,108 @@
+package com.daniil.bookingservice.repository;
+
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Таблица bookings_archive. Строки читаются в обычные (не управляемые JPA) объекты Booking:
+ * архив только для чтения.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingArchiveRepository {
+
+    private static final String ARCHIVABLE = "(end_date < ? OR (status = 'CANCELLED' AND created_at < ?))";
+    private static final String COLUMNS = "id, user_id, room_id, start_date, end_date, status, created_at, correlation_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public Optional<Booking> findById(Long id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM bookings_archive WHERE id = ?",
+                (rs, rowNum) -> Booking.builder()
+                        .id(rs.getLong("id"))
+                        .userId(rs.getObject("user_id", Long.class))
+                        .roomId(rs.getObject("room_id", Long.class))
+                        .startDate(rs.getObject("start_date", LocalDate.class))
+                        .endDate(rs.getObject("end_date", LocalDate.class))
+                        .status(rs.getString("status") != null ? BookingStatus.valueOf(rs.getString("status")) : null)
+                        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                        .correlationId(rs.getString("correlation_id"))
+                        .build(),
+                id).stream().findFirst();
+    }
+
+    /**
+     * Очередная пачка (keyset по id) бронирований, закончившихся до endedBefore, или отменённых до cancelledBefore.
+     */
+    public List<Long> findArchivableIds(long afterId, LocalDate endedBefore, LocalDateTime cancelledBefore, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM bookings WHERE id > ? AND " + ARCHIVABLE + " ORDER BY id LIMIT ?",
+                Long.class, afterId, endedBefore, cancelledBefore, limit);
+    }
+
+    /**
+     * Переносит строки ids в архив; вызывается в транзакции. Строки сначала блокируются и условие проверяется
+     * заново: бронирование могло измениться после выборки пачки. Удаление идёт мимо Hibernate,
+     * поэтому перенесённые бронирования убираются из кэша второго уровня.
+     *
+     * @return сколько строк перенесено
+     */
+    public int moveToArchive(List<Long> ids, LocalDate endedBefore, LocalDateTime cancelledBefore, LocalDateTime archivedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(ids);
+        args.add(endedBefore);
+        args.add(cancelledBefore);
+        List<Long> locked = jdbcTemplate.queryForList(
+                "SELECT id FROM bookings WHERE id IN (" + placeholders(ids.size()) + ") AND " + ARCHIVABLE + " FOR UPDATE",
+                Long.class, args.toArray());
+        if (locked.isEmpty()) {
+            return 0;
+        }
+
+        String in = placeholders(locked.size());
+        List<Object> insertArgs = new ArrayList<>(locked.size() + 1);
+        insertArgs.add(archivedAt);
+        insertArgs.addAll(locked);
+        jdbcTemplate.update("INSERT INTO bookings_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+                + ", ? FROM bookings WHERE id IN (" + in + ")", insertArgs.toArray());
+        int deleted = jdbcTemplate.update("DELETE FROM bookings WHERE id IN (" + in + ")", locked.toArray());
+        evictFromCache(locked);
+        return deleted;
+    }
+
+    /**
+     * Сразу и ещё раз после коммита: до коммита параллельное чтение может вернуть строку в кэш.
+     */
+    private void evictFromCache(List<Long> ids) {
+        Runnable evict = () -> ids.forEach(id -> entityManagerFactory.getCache().evict(Booking.class, id));
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -1,18 +1,88 @@
 package com.daniil.bookingservice.repository;
 
+import com.daniil.bookingservice.dto.DailyBookingAggregate;
 import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingSearchRepository {
 
     /**
-     * Идемпотентность: поиск бронирования по correlationId
+     * Идемпотентность: поиск бронирования по correlationId, всегда в основной БД (не readOnly)
      */
+    @Transactional
     Optional<Booking> findByCorrelationId(String correlationId);
-}
 
+    /**
+     * Аналитика: агрегаты по дню заезда, номеру и статусу за [from, toExclusive).
+     * Читается только покрывающий индекс ix_bookings_start_status_room.
+     */
+    @Query("""
+            SELECT new com.daniil.bookingservice.dto.DailyBookingAggregate(
+                b.startDate, b.roomId, b.status, COUNT(b), SUM((b.endDate - b.startDate) by day))
+            FROM Booking b
+            WHERE b.startDate >= :from AND b.startDate < :toExclusive
+            GROUP BY b.startDate, b.roomId, b.status
+            """)
+    List<DailyBookingAggregate> aggregateDaily(@Param("from") LocalDate from,
+                                               @Param("toExclusive") LocalDate toExclusive);
+
+    @Query("""
+            SELECT new com.daniil.bookingservice.dto.DailyBookingAggregate(
+                b.startDate, b.roomId, b.status, COUNT(b), SUM((b.endDate - b.startDate) by day))
+            FROM Booking b
+            WHERE b.startDate >= :from AND b.startDate < :toExclusive AND b.roomId = :roomId
+            GROUP BY b.startDate, b.roomId, b.status
+            """)
+    List<DailyBookingAggregate> aggregateDailyForRoom(@Param("from") LocalDate from,
+                                                      @Param("toExclusive") LocalDate toExclusive,
+                                                      @Param("roomId") Long roomId);
+
+    /**
+     * Массовая отмена: очередная пачка (keyset по id) бронирований номеров roomIds в статусах statuses,
+     * пересекающихся с [from, toExclusive). Строки блокируются до UPDATE в той же транзакции.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT b FROM Booking b
+            WHERE b.roomId IN :roomIds AND b.status IN :statuses
+              AND b.startDate < :toExclusive AND b.endDate > :from
+              AND b.id > :afterId
+            ORDER BY b.id
+            """)
+    List<Booking> findChunkForBulkCancel(@Param("roomIds") List<Long> roomIds,
+                                         @Param("statuses") List<BookingStatus> statuses,
+                                         @Param("from") LocalDate from,
+                                         @Param("toExclusive") LocalDate toExclusive,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id IN :ids")
+    int updateStatus(@Param("ids") List<Long> ids, @Param("status") BookingStatus status);
+
+    /**
+     * Переход статуса, только если бронирование всё ещё в статусе expected: шаг saga не перезаписывает
+     * отмену, сделанную за это время массовой отменой (BulkCancellationService).
+     *
+     * @return 1 — переход выполнен, 0 — статус уже изменили
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id = :id AND b.status = :expected")
+    int updateStatusIfCurrent(@Param("id") Long id,
+                              @Param("expected") BookingStatus expected,
+                              @Param("status") BookingStatus status);
+}
@@ -0,0 +1,15 @@
+package com.daniil.bookingservice.repository;
+
+import com.daniil.bookingservice.dto.BookingResponse;
+import com.daniil.bookingservice.dto.BookingSearchCriteria;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface BookingSearchRepository {
+
+    /**
+     * Поиск по динамическим фильтрам, новые бронирования первыми, без COUNT(*). Читается с реплики, если она настроена.
+     */
+    @Transactional(readOnly = true)
+    Slice<BookingResponse> search(BookingSearchCriteria criteria, int size);
+}
@@ -0,0 +1,82 @@
+package com.daniil.bookingservice.repository;
+
+import com.daniil.bookingservice.dto.BookingResponse;
+import com.daniil.bookingservice.dto.BookingSearchCriteria;
+import com.daniil.bookingservice.entity.Booking;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Две фазы (deferred join): сначала criteria-запрос только за id — он целиком читается из индекса,
+ * заканчивающегося на id, и останавливается на size + 1 строке; затем строки страницы по первичному ключу
+ * сразу в BookingResponse, без управляемых сущностей.
+ */
+public class BookingSearchRepositoryImpl implements BookingSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<BookingResponse> search(BookingSearchCriteria criteria, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Booking> booking = query.from(Booking.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getStatus() != null) {
+            predicates.add(cb.equal(booking.get("status"), criteria.getStatus()));
+        }
+        if (criteria.getRoomId() != null) {
+            predicates.add(cb.equal(booking.get("roomId"), criteria.getRoomId()));
+        }
+        if (criteria.getUserId() != null) {
+            predicates.add(cb.equal(booking.get("userId"), criteria.getUserId()));
+        }
+        if (criteria.getFrom() != null) {
+            predicates.add(cb.greaterThan(booking.<LocalDate>get("endDate"), criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            predicates.add(cb.lessThan(booking.<LocalDate>get("startDate"), criteria.getTo()));
+        }
+        if (criteria.getBeforeId() != null) {
+            predicates.add(cb.lessThan(booking.<Long>get("id"), criteria.getBeforeId()));
+        }
+
+        query.select(booking.<Long>get("id"))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(booking.get("id")));
+        List<Long> ids = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        boolean hasNext = ids.size() > size;
+        if (hasNext) {
+            ids = ids.subList(0, size);
+        }
+        if (ids.isEmpty()) {
+            return new SliceImpl<>(List.of(), PageRequest.ofSize(size), false);
+        }
+
+        List<BookingResponse> rows = entityManager.createQuery("""
+                        SELECT new com.daniil.bookingservice.dto.BookingResponse(
+                            b.id, b.userId, b.roomId, b.startDate, b.endDate, b.status, b.createdAt, b.correlationId)
+                        FROM Booking b
+                        WHERE b.id IN :ids
+                        ORDER BY b.id DESC
+                        """, BookingResponse.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        return new SliceImpl<>(rows, PageRequest.ofSize(size), hasNext);
+    }
+}
@@ -2,10 +2,30 @@ package com.daniil.bookingservice.repository;
 
 
 import com.daniil.bookingservice.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 
+/**
+ * Пользователи читаются из основной БД, а не с реплики: вход сразу после регистрации
+ * и проверка refresh-токена не должны зависеть от задержки репликации.
+ * Сами записи при включённом booking.l2-cache берутся из кэша второго уровня (регион user).
+ */
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    /**
+     * Результат запроса кэшируется (id по username) и сбрасывается при любой записи в users
+     */
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
+
+    @Override
+    @Transactional
+    Optional<User> findById(Long id);
 }
 
@@ -0,0 +1,26 @@
+package com.daniil.bookingservice.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * id пользователя текущего запроса — claim uid access-токена (JwtTokenProvider), без обращения к БД.
+ */
+public final class AuthenticatedUser {
+
+    private AuthenticatedUser() {
+    }
+
+    public static Long id() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken token
+                && token.getToken().getClaim(JwtTokenProvider.USER_ID_CLAIM) instanceof Number uid) {
+            return uid.longValue();
+        }
+        // токен выпущен до появления claim uid (живёт не дольше access-token-ttl) — нужен повторный вход
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Access token has no user id, sign in again");
+    }
+}
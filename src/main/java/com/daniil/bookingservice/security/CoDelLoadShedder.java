@@ -0,0 +1,65 @@
+package com.daniil.bookingservice.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Допуск запросов по времени ожидания в очереди (CoDel в варианте для серверов).
+ *
+ * <p>Пока очередь хотя бы раз за interval опускалась ниже target, она считается разгружающейся,
+ * и обычный запрос допускается с ожиданием до interval. Если минимальное ожидание за целый interval
+ * выше target, очередь стоячая: обычные запросы, прождавшие дольше target, отбрасываются,
+ * пока очередь не рассосётся. Критичные запросы отбрасываются только после criticalMaxQueueTime —
+ * к этому моменту клиент, скорее всего, уже не ждёт ответа.
+ */
+public class CoDelLoadShedder {
+
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final long criticalMaxNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong intervalEnd;
+    private final AtomicLong minInInterval = new AtomicLong(Long.MAX_VALUE);
+    private volatile boolean overloaded;
+
+    public CoDelLoadShedder(Duration target, Duration interval, Duration criticalMaxQueueTime) {
+        this(target, interval, criticalMaxQueueTime, System::nanoTime);
+    }
+
+    CoDelLoadShedder(Duration target, Duration interval, Duration criticalMaxQueueTime, LongSupplier nanoClock) {
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.criticalMaxNanos = criticalMaxQueueTime.toNanos();
+        this.nanoClock = nanoClock;
+        this.intervalEnd = new AtomicLong(nanoClock.getAsLong() + intervalNanos);
+    }
+
+    /**
+     * @param queuedNanos время ожидания запроса в очереди; отрицательное — неизвестно, запрос допускается
+     */
+    public boolean admit(long queuedNanos, boolean critical) {
+        if (queuedNanos < 0) {
+            return true;
+        }
+        observe(queuedNanos);
+        if (critical) {
+            return queuedNanos <= criticalMaxNanos;
+        }
+        return queuedNanos <= (overloaded ? targetNanos : intervalNanos);
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    private void observe(long queuedNanos) {
+        minInInterval.accumulateAndGet(queuedNanos, Math::min);
+        long now = nanoClock.getAsLong();
+        long end = intervalEnd.get();
+        if (now - end >= 0 && intervalEnd.compareAndSet(end, now + intervalNanos)) {
+            overloaded = minInInterval.getAndSet(Long.MAX_VALUE) > targetNanos;
+        }
+    }
+}
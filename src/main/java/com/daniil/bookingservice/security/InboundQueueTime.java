@@ -0,0 +1,31 @@
+package com.daniil.bookingservice.security;
+
+/**
+ * Время ожидания текущего запроса в очереди воркеров Tomcat (нс). Выставляется
+ * QueueTimeTrackingExecutor перед обработкой сокета; без него время неизвестно.
+ */
+public final class InboundQueueTime {
+
+    static final long UNKNOWN = -1;
+
+    private static final ThreadLocal<Long> QUEUED_NANOS = new ThreadLocal<>();
+
+    private InboundQueueTime() {
+    }
+
+    static void set(long queuedNanos) {
+        QUEUED_NANOS.set(queuedNanos);
+    }
+
+    static void clear() {
+        QUEUED_NANOS.remove();
+    }
+
+    /**
+     * @return время в очереди в нс или UNKNOWN, если запрос пришёл не через отслеживаемый executor
+     */
+    public static long nanos() {
+        Long queued = QUEUED_NANOS.get();
+        return queued == null ? UNKNOWN : queued;
+    }
+}
@@ -1,37 +1,59 @@
 package com.daniil.bookingservice.security;
 
+import com.daniil.bookingservice.jfr.JwtSignEvent;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
+    /** id пользователя: ключ шардирования и владелец бронирований (AuthenticatedUser) */
+    public static final String USER_ID_CLAIM = "uid";
+
     private final String secretKey = "superSecretKeyForJwtThatShouldBeStoredInEnv";
-    private final long validityInMs = 3600000; // 1 час
+    // короткий срок: дальше клиент обменивает refresh-токен, а не логинится паролем
+    @Value("${booking.auth.access-token-ttl:15m}")
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
 
-    public String createToken(String username, String role) {
+    public String createToken(String username, String role, Long userId) {
         Claims claims = Jwts.claims().setSubject(username);
         claims.put("role", role);
+        if (userId != null) {
+            claims.put(USER_ID_CLAIM, userId);
+        }
         Date now = new Date();
-        Date validity = new Date(now.getTime() + validityInMs);
-
-        return Jwts.builder()
-                .setClaims(claims)
-                .setIssuedAt(now)
-                .setExpiration(validity)
-                .signWith(Keys.hmacShaKeyFor(secretKey.getBytes()), SignatureAlgorithm.HS256)
-                .compact();
+        Date validity = new Date(now.getTime() + accessTokenTtl.toMillis());
+
+        JwtSignEvent event = JwtSignEvent.begin(username);
+        String outcome = "error";
+        try {
+            String token = Jwts.builder()
+                    .setClaims(claims)
+                    .setId(UUID.randomUUID().toString()) // jti — ключ для отзыва токена
+                    .setIssuedAt(now)
+                    .setExpiration(validity)
+                    .signWith(Keys.hmacShaKeyFor(secretKey.getBytes()), SignatureAlgorithm.HS256)
+                    .compact();
+            outcome = "ok";
+            return token;
+        } finally {
+            event.end(MDC.get("traceId"), outcome);
+        }
     }
 
     public boolean validateToken(String token) {
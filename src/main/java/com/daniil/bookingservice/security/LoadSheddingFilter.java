@@ -0,0 +1,76 @@
+package com.daniil.bookingservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отбрасывает запросы, слишком долго ждавшие воркера, до security и бизнес-логики:
+ * клиент (gateway) к этому времени мог уже отвалиться по таймауту. Чтения (GET/HEAD) — критичные.
+ * Регистрируется в LoadSheddingConfig первым фильтром; actuator не трогает.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final CoDelLoadShedder shedder;
+    private final long retryAfterSeconds;
+    private final Timer queueTime;
+    private final Counter criticalAdmitted;
+    private final Counter criticalShed;
+    private final Counter normalAdmitted;
+    private final Counter normalShed;
+
+    public LoadSheddingFilter(CoDelLoadShedder shedder, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.shedder = shedder;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queueTime = meterRegistry.timer("booking.inbound.queue-time");
+        this.criticalAdmitted = counter(meterRegistry, "critical", "admitted");
+        this.criticalShed = counter(meterRegistry, "critical", "shed");
+        this.normalAdmitted = counter(meterRegistry, "normal", "admitted");
+        this.normalShed = counter(meterRegistry, "normal", "shed");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long queuedNanos = InboundQueueTime.nanos();
+        if (queuedNanos >= 0) {
+            queueTime.record(queuedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        boolean critical = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (!shedder.admit(queuedNanos, critical)) {
+            (critical ? criticalShed : normalShed).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Service Unavailable\",\"message\":\"Server overloaded\"}");
+            return;
+        }
+        (critical ? criticalAdmitted : normalAdmitted).increment();
+        chain.doFilter(request, response);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String priority, String outcome) {
+        return Counter.builder("booking.loadshed.requests")
+                .tag("priority", priority)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.daniil.bookingservice.security;
+
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пул воркеров Tomcat, собранный как внутренний (TaskQueue + TaskThreadFactory), но каждая задача
+ * помечается временем постановки в очередь. Время ожидания доступно обработчику через InboundQueueTime.
+ *
+ * <p>Ожидание в accept-очереди ОС (server.tomcat.accept-count) сюда не попадает — его не видно из JVM.
+ */
+public class QueueTimeTrackingExecutor extends ThreadPoolExecutor {
+
+    public QueueTimeTrackingExecutor(int minSpareThreads, int maxThreads, int maxQueueCapacity) {
+        this(minSpareThreads, maxThreads, new TaskQueue(maxQueueCapacity));
+    }
+
+    private QueueTimeTrackingExecutor(int minSpareThreads, int maxThreads, TaskQueue queue) {
+        super(minSpareThreads, maxThreads, 60, TimeUnit.SECONDS, queue,
+                new TaskThreadFactory("http-exec-", true, Thread.NORM_PRIORITY));
+        queue.setParent(this);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new QueuedTask(command, System.nanoTime()));
+    }
+
+    private record QueuedTask(Runnable task, long enqueuedAt) implements Runnable {
+        @Override
+        public void run() {
+            InboundQueueTime.set(System.nanoTime() - enqueuedAt);
+            try {
+                task.run();
+            } finally {
+                InboundQueueTime.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.daniil.bookingservice.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * booking.rate-limit.*: лимиты бронирований по роли из JWT и лимит логина по username + IP.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "booking.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Максимум ключей в памяти; при переполнении вытесняются редко используемые корзины */
+    private int maxKeys = 100_000;
+
+    /** Корзина, простоявшая полной столько времени, удаляется */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** Период очистки простаивающих корзин */
+    private long evictionIntervalMs = 60_000;
+
+    /**
+     * Адреса (или CIDR) прокси, которым доверяется X-Forwarded-For. Пусто — заголовок игнорируется,
+     * клиент — адрес соединения.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /** Лимиты бронирований по роли (USER, VIP, ADMIN, ...) */
+    private Map<String, Limit> limits = new HashMap<>();
+
+    /** Лимит для ролей, которых нет в limits */
+    private Limit defaultLimit = new Limit(5, 10);
+
+    /** Лимит POST /api/user/auth на пару username + IP клиента */
+    private Limit auth = new Limit(1, 5);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private double ratePerSecond;
+        private int burst;
+    }
+
+    public Limit forRole(String role) {
+        return role != null ? limits.getOrDefault(role, defaultLimit) : defaultLimit;
+    }
+}
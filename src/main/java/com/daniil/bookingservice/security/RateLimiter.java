@@ -0,0 +1,105 @@
+package com.daniil.bookingservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket в форме GCRA: на ключ хранится один AtomicLong — теоретическое время прибытия (TAT)
+ * следующего запроса, обновляемое CAS без блокировок. Запрос проходит, если TAT опережает текущее время
+ * не больше чем на (burst - 1) интервалов.
+ *
+ * <p>Корзины, простоявшие полными idle-timeout, удаляются по расписанию, вне потока запроса. Число корзин
+ * ограничено max-keys: при переполнении Caffeine (W-TinyLFU) вытесняет редко используемую корзину. Поток
+ * уникальных ключей (случайные username на логине) вытесняет такие же разовые ключи, а не часто бьющие
+ * корзины: новых клиентов он не блокирует, и сбросить исчерпанный лимит активного ключа им нельзя.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    public static final String SCOPE_BOOKING = "booking";
+    public static final String SCOPE_AUTH = "auth";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                // вытеснение в потоке запроса: без гонки с пулом ForkJoin и без задержки под потоком ключей
+                .executor(Runnable::run)
+                .removalListener((String key, AtomicLong tat, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        count(key.substring(0, key.indexOf(':')), "evicted");
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @param retryAfterSeconds через сколько секунд появится токен; 0, если запрос разрешён
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+
+    public Decision tryAcquireBooking(String principal, String role) {
+        return tryAcquire(SCOPE_BOOKING, SCOPE_BOOKING + ':' + principal, properties.forRole(role));
+    }
+
+    public Decision tryAcquireAuth(String username, String clientIp) {
+        return tryAcquire(SCOPE_AUTH, SCOPE_AUTH + ':' + username + '|' + clientIp, properties.getAuth());
+    }
+
+    Decision tryAcquire(String scope, String key, RateLimitProperties.Limit limit) {
+        if (!properties.isEnabled()) {
+            return Decision.ALLOWED;
+        }
+        long now = System.nanoTime();
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(now));
+
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRatePerSecond());
+        long tolerance = interval * Math.max(0, limit.getBurst() - 1);
+        while (true) {
+            long current = tat.get();
+            long start = Math.max(current, now);
+            if (start - now > tolerance) {
+                count(scope, "denied");
+                long waitNanos = start - now - tolerance;
+                return new Decision(false, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+            }
+            if (tat.compareAndSet(current, start + interval)) {
+                count(scope, "allowed");
+                return Decision.ALLOWED;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        int before = buckets.asMap().size();
+        buckets.asMap().values().removeIf(tat -> tat.get() - cutoff < 0);
+        log.debug("Rate limiter evicted {} idle buckets", before - buckets.asMap().size());
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private void count(String scope, String outcome) {
+        meterRegistry.counter("booking.ratelimit.requests", "scope", scope, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,31 @@
+package com.daniil.bookingservice.security;
+
+import com.daniil.bookingservice.service.RequestDeadline;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+public class RequestDeadlineFilter implements Filter {
+    private static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String timeout = request instanceof HttpServletRequest http ? http.getHeader(TIMEOUT_HEADER) : null;
+        if (timeout != null) {
+            try {
+                RequestDeadline.set(Long.parseLong(timeout.trim()));
+            } catch (NumberFormatException ignored) {
+                // некорректный заголовок — работаем без дедлайна
+            }
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
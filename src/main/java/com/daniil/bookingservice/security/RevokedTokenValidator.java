@@ -0,0 +1,27 @@
+package com.daniil.bookingservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Отклоняет отозванные токены при декодировании в resource server.
+ */
+@RequiredArgsConstructor
+public class RevokedTokenValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error REVOKED =
+            new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Token has been revoked", null);
+
+    private final TokenRevocationList revocationList;
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt token) {
+        return revocationList.isRevoked(token.getId())
+                ? OAuth2TokenValidatorResult.failure(REVOKED)
+                : OAuth2TokenValidatorResult.success();
+    }
+}
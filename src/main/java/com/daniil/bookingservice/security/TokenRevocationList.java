@@ -0,0 +1,182 @@
+package com.daniil.bookingservice.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Отозванные токены (по jti) до истечения их exp.
+ *
+ * <p>Проверка на каждый запрос — Bloom-фильтр в памяти: k чтений слов AtomicLongArray без блокировок.
+ * Точное множество смотрится только при попадании в фильтр (все отозванные + ~fpp ложных срабатываний).
+ * Удалять из Bloom-фильтра нельзя, поэтому при очистке истёкших записей фильтр строится заново и подменяется.
+ *
+ * <p>Память: ~9.6 бит на ожидаемую запись при fpp = 1% (≈120 КБ на 100 000 записей).
+ *
+ * <p>Источник истины — таблица revoked_tokens в основной БД (шард 0, рядом с refresh_tokens): revoke пишет
+ * в неё до ответа на logout, экземпляр загружает её при старте и раз в sync-interval-ms подтягивает записи
+ * других экземпляров. Токен, отозванный на другом экземпляре, принимается здесь не дольше sync-interval-ms.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    /**
+     * Запас при чтении чужих записей по revoked_at: расхождение часов экземпляров и запись,
+     * закоммиченная позже, чем началось её чтение. Повторно прочитанные записи ничего не меняют.
+     */
+    private static final Duration SYNC_LOOKBACK = Duration.ofMinutes(1);
+
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final int bits;
+    private final int hashes;
+    private volatile AtomicLongArray filter;
+    private volatile Instant syncedFrom = Instant.EPOCH;
+
+    public TokenRevocationList(JdbcTemplate jdbcTemplate,
+                               @Value("${booking.revocation.expected-entries:100000}") int expectedEntries,
+                               @Value("${booking.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, optimalBits));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedEntries * ln2));
+        this.filter = newFilter();
+    }
+
+    /**
+     * Отзыв переживает рестарт и виден остальным экземплярам; при ошибке БД исключение уходит в logout.
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?)",
+                    jti, Timestamp.from(expiresAt), Timestamp.from(Instant.now()));
+        } catch (DuplicateKeyException e) {
+            // повторный logout тем же токеном
+        }
+        remember(jti, expiresAt);
+    }
+
+    /**
+     * Живые записи при старте экземпляра.
+     */
+    @PostConstruct
+    public void load() {
+        sync();
+    }
+
+    /**
+     * Подтягивает отзывы, записанные с прошлой синхронизации (в том числе другими экземплярами).
+     */
+    @Scheduled(fixedDelayString = "${booking.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        Instant startedAt = Instant.now();
+        Instant from = syncedFrom;
+        List<Map.Entry<String, Instant>> rows = jdbcTemplate.query("""
+                        SELECT jti, expires_at FROM revoked_tokens
+                        WHERE revoked_at >= ? AND expires_at > ?
+                        """,
+                (rs, rowNum) -> Map.entry(rs.getString("jti"), rs.getTimestamp("expires_at").toInstant()),
+                Timestamp.from(from), Timestamp.from(startedAt));
+        rows.forEach(row -> remember(row.getKey(), row.getValue()));
+        syncedFrom = startedAt.minus(SYNC_LOOKBACK);
+        log.debug("Revocation list synced: {} entries since {}", rows.size(), from);
+    }
+
+    private void remember(String jti, Instant expiresAt) {
+        revoked.put(jti, expiresAt);
+        add(filter, jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !mightContain(jti)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    /**
+     * Удаляет истёкшие записи из памяти и таблицы и перестраивает фильтр. Второй проход по map подхватывает
+     * записи, добавленные в старый фильтр во время первого прохода.
+     */
+    @Scheduled(fixedDelayString = "${booking.revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", Timestamp.from(now));
+
+        AtomicLongArray fresh = newFilter();
+        revoked.keySet().forEach(jti -> add(fresh, jti));
+        filter = fresh;
+        revoked.keySet().forEach(jti -> add(fresh, jti));
+        log.debug("Revocation list purged: {} -> {} entries", before, revoked.size());
+    }
+
+    boolean mightContain(String jti) {
+        AtomicLongArray current = filter;
+        long hash = hash(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            if ((current.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    private void add(AtomicLongArray target, String jti) {
+        long hash = hash(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            target.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+        }
+    }
+
+    private AtomicLongArray newFilter() {
+        return new AtomicLongArray((bits + 63) >>> 6);
+    }
+
+    /**
+     * FNV-1a по символам + финальное перемешивание (murmur3 fmix64): две независимые половины для double hashing.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
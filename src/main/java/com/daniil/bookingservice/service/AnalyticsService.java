@@ -0,0 +1,79 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.AnalyticsGranularity;
+import com.daniil.bookingservice.dto.DailyBookingAggregate;
+import com.daniil.bookingservice.dto.OccupancyStats;
+import com.daniil.bookingservice.repository.BookingRepository;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private final BookingRepository bookingRepository;
+    private final BookingRollupService bookingRollupService;
+    private final ShardRouter shardRouter;
+
+    /**
+     * rollup — дневные счётчики booking_daily_rollup (O(дней) строк),
+     * bookings — агрегаты по исходной таблице.
+     */
+    @Value("${booking.analytics.source:rollup}")
+    private String source;
+
+    /**
+     * Статистика по дате заезда в [from, to] с разбивкой по периодам и номерам.
+     * Дневные агрегаты (O(дней × номеров) строк) сворачиваются в недели/месяцы здесь.
+     * Закрытые периоды (to раньше сегодняшнего дня) больше не меняются и кэшируются.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = "occupancy", condition = "#to.isBefore(T(java.time.LocalDate).now())")
+    public List<OccupancyStats> occupancy(LocalDate from, LocalDate to, AnalyticsGranularity granularity, Long roomId) {
+        LocalDate toExclusive = to.plusDays(1);
+        List<DailyBookingAggregate> daily;
+        if ("rollup".equals(source)) {
+            daily = bookingRollupService.readDaily(from, toExclusive, roomId);
+        } else {
+            daily = new ArrayList<>();
+            shardRouter.gather(shard -> roomId == null
+                            ? bookingRepository.aggregateDaily(from, toExclusive)
+                            : bookingRepository.aggregateDailyForRoom(from, toExclusive, roomId))
+                    .forEach(daily::addAll);
+        }
+        return rollUp(daily, granularity);
+    }
+
+    List<OccupancyStats> rollUp(List<DailyBookingAggregate> daily, AnalyticsGranularity granularity) {
+        Map<PeriodKey, OccupancyStats> buckets = new LinkedHashMap<>();
+        for (DailyBookingAggregate aggregate : daily) {
+            LocalDate periodStart = granularity.periodStart(aggregate.getDay());
+            buckets.computeIfAbsent(new PeriodKey(periodStart, aggregate.getRoomId()),
+                            key -> new OccupancyStats(key.periodStart(), key.roomId()))
+                    .add(aggregate);
+        }
+
+        List<OccupancyStats> result = new ArrayList<>(buckets.values());
+        result.sort(Comparator.comparing(OccupancyStats::getPeriodStart)
+                .thenComparing(OccupancyStats::getRoomId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    private record PeriodKey(LocalDate periodStart, Long roomId) {
+        PeriodKey {
+            Objects.requireNonNull(periodStart);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.daniil.bookingservice.service;
 
 import com.daniil.bookingservice.security.JwtTokenProvider;
+import com.daniil.bookingservice.dto.AuthResponse;
+import com.daniil.bookingservice.dto.RefreshTokenRequest;
 import com.daniil.bookingservice.dto.UserDto;
 import com.daniil.bookingservice.entity.User;
 import com.daniil.bookingservice.repository.UserRepository;
@@ -20,6 +22,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final RefreshTokenService refreshTokenService;
 
     public ResponseEntity<?> register(UserDto request) {
         if (userRepository.findByUsername(request.getUsername()).isPresent()) {
@@ -34,8 +37,7 @@ public class AuthService {
         user.setRole("USER");
         userRepository.save(user);
 
-        String token = jwtTokenProvider.createToken(user.getUsername(), user.getRole());
-        return ResponseEntity.ok(Map.of("token", token));
+        return ResponseEntity.ok(issueTokens(user));
     }
 
     public ResponseEntity<?> authenticate(UserDto request) {
@@ -48,8 +50,35 @@ public class AuthService {
             ));
         }
 
-        String token = jwtTokenProvider.createToken(user.getUsername(), user.getRole());
-        return ResponseEntity.ok(Map.of("token", token));
+        return ResponseEntity.ok(issueTokens(user));
+    }
+
+    /**
+     * Новый access-токен по refresh-токену: поиск по первичному ключу вместо BCrypt.
+     */
+    public ResponseEntity<?> refresh(RefreshTokenRequest request) {
+        return refreshTokenService.rotate(request.refreshToken())
+                .flatMap(rotation -> userRepository.findById(rotation.userId())
+                        .map(user -> new AuthResponse(
+                                jwtTokenProvider.createToken(user.getUsername(), user.getRole(), user.getId()),
+                                rotation.refreshToken())))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                        "error", "Invalid refresh token"
+                )));
+    }
+
+    /**
+     * Отзывает все refresh-токены пользователя.
+     */
+    public void logout(String username) {
+        userRepository.findByUsername(username)
+                .ifPresent(user -> refreshTokenService.revokeAll(user.getId()));
+    }
+
+    private AuthResponse issueTokens(User user) {
+        String token = jwtTokenProvider.createToken(user.getUsername(), user.getRole(), user.getId());
+        return new AuthResponse(token, refreshTokenService.issue(user.getId()));
     }
 }
 
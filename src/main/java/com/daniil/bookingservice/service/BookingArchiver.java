@@ -0,0 +1,106 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.repository.BookingArchiveRepository;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Перенос завершённых бронирований из bookings в bookings_archive: закончившихся больше ended-retention-days назад
+ * и отменённых больше cancelled-retention-days назад.
+ *
+ * <p>Пачки по batch-size строк с keyset по id, каждая в своей короткой транзакции; между пачками пауза pause-ms,
+ * за запуск не больше max-batches-per-run пачек — остаток перенесёт следующий запуск.
+ * Rollup-счётчики не меняются: архивные строки остаются в истории.
+ * При шардировании архив у каждого шарда свой, лимит пачек действует на каждый шард.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "booking.archive.enabled", havingValue = "true")
+public class BookingArchiver {
+
+    private final BookingArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int endedRetentionDays;
+    private final int cancelledRetentionDays;
+    private final int batchSize;
+    private final long pauseMs;
+    private final int maxBatchesPerRun;
+
+    public BookingArchiver(BookingArchiveRepository archiveRepository,
+                           PlatformTransactionManager transactionManager,
+                           ShardRouter shardRouter,
+                           @Value("${booking.archive.ended-retention-days:180}") int endedRetentionDays,
+                           @Value("${booking.archive.cancelled-retention-days:30}") int cancelledRetentionDays,
+                           @Value("${booking.archive.batch-size:500}") int batchSize,
+                           @Value("${booking.archive.pause-ms:200}") long pauseMs,
+                           @Value("${booking.archive.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.endedRetentionDays = endedRetentionDays;
+        this.cancelledRetentionDays = cancelledRetentionDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(cron = "${booking.archive.cron:0 30 3 * * *}")
+    public long archive() {
+        LocalDate endedBefore = LocalDate.now().minusDays(endedRetentionDays);
+        LocalDateTime cancelledBefore = LocalDateTime.now().minusDays(cancelledRetentionDays);
+
+        return shardRouter.eachShard(shard -> archiveShard(shard, endedBefore, cancelledBefore))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    private long archiveShard(int shard, LocalDate endedBefore, LocalDateTime cancelledBefore) {
+        long started = System.currentTimeMillis();
+        long afterId = 0;
+        long moved = 0;
+        int batches = 0;
+        while (batches < maxBatchesPerRun) {
+            List<Long> ids = archiveRepository.findArchivableIds(afterId, endedBefore, cancelledBefore, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer count = transactionTemplate.execute(status ->
+                    archiveRepository.moveToArchive(ids, endedBefore, cancelledBefore, LocalDateTime.now()));
+            moved += count != null ? count : 0;
+            afterId = ids.get(ids.size() - 1);
+            batches++;
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        log.info("Archived {} bookings on shard {} in {} batches, {} ms",
+                moved, shard, batches, System.currentTimeMillis() - started);
+        return moved;
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.daniil.bookingservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight для запросов с одинаковым correlationId: первый запрос выполняет создание бронирования,
+ * параллельные повторы gateway ждут его результата, а не идут второй раз в hotel-service.
+ *
+ * <p>Ключ удаляется сразу после завершения лидера (т.е. после commit), дальше повторы
+ * обслуживает обычная проверка findByCorrelationId. При переполнении карты запрос
+ * выполняется без коалесинга — от дубликата всё равно защищает уникальный индекс.
+ */
+@Slf4j
+@Component
+public class BookingRequestCoalescer {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final int maxInFlight;
+    private final long timeoutMs;
+
+    public BookingRequestCoalescer(@Value("${booking.coalescing.max-in-flight:10000}") int maxInFlight,
+                                   @Value("${booking.coalescing.timeout-ms:10000}") long timeoutMs) {
+        this.maxInFlight = maxInFlight;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> action) {
+        if (key == null || inFlight.size() >= maxInFlight) {
+            return action.get();
+        }
+
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, own);
+        if (leader != null) {
+            log.info("[{}] Duplicate request in flight, waiting for the first one", key);
+            return (T) await(key, leader);
+        }
+
+        try {
+            T result = action.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private Object await(String key, CompletableFuture<Object> leader) {
+        try {
+            return leader.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Booking " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for booking " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.DailyBookingAggregate;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import com.daniil.bookingservice.event.BookingsBulkLoadedEvent;
+import com.daniil.bookingservice.repository.BookingRepository;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инкрементальные дневные счётчики в booking_daily_rollup.
+ * Обновляются синхронно в транзакции, где меняется статус бронирования,
+ * поэтому счётчики не расходятся с bookings при откате.
+ * При шардировании у каждого шарда свои счётчики по своим бронированиям; чтение складывает все шарды.
+ *
+ * <p>Пересчёт (DELETE и вставка заново) исключает инкременты: транзакция, сделавшая инкремент, держит
+ * read-lock до своего завершения, rebuild берёт write-lock. Иначе счётчик транзакции, закоммиченной между
+ * чтением bookings и DELETE, стирался бы. Блокировка в пределах экземпляра сервиса.
+ */
+@Slf4j
+@Service
+public class BookingRollupService {
+
+    /** room_id в rollup-таблице для бронирований без номера */
+    static final long NO_ROOM = 0L;
+
+    private static final LocalDate MIN_DATE = LocalDate.of(1970, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 1, 1);
+
+    private static final String UPSERT = """
+            MERGE INTO booking_daily_rollup r
+            USING (VALUES (CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS VARCHAR(20)), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+                AS d (start_date, room_id, status, bookings, nights)
+            ON r.start_date = d.start_date AND r.room_id = d.room_id AND r.status = d.status
+            WHEN MATCHED THEN
+                UPDATE SET bookings = r.bookings + d.bookings, nights = r.nights + d.nights
+            WHEN NOT MATCHED THEN
+                INSERT (start_date, room_id, status, bookings, nights)
+                VALUES (d.start_date, d.room_id, d.status, d.bookings, d.nights)
+            """;
+
+    private static final String ARCHIVE_AGGREGATE = """
+            SELECT start_date, room_id, status, COUNT(*) AS bookings,
+                   SUM(DATEDIFF('DAY', start_date, end_date)) AS nights
+            FROM bookings_archive
+            WHERE start_date IS NOT NULL AND end_date IS NOT NULL AND status IS NOT NULL
+            GROUP BY start_date, room_id, status
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingRepository bookingRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public BookingRollupService(JdbcTemplate jdbcTemplate,
+                                BookingRepository bookingRepository,
+                                ShardRouter shardRouter,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingRepository = bookingRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        if (event.startDate() == null || event.endDate() == null) {
+            return;
+        }
+        Lock lock = rebuildLock.readLock();
+        lock.lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                apply(event);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        // до commit/rollback: пересчёт должен увидеть бронирование уже закоммиченным
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+        apply(event);
+    }
+
+    @EventListener
+    public void onBulkLoaded(BookingsBulkLoadedEvent event) {
+        rebuild();
+    }
+
+    private void apply(BookingStatusChangedEvent event) {
+        long nights = ChronoUnit.DAYS.between(event.startDate(), event.endDate());
+        if (!event.isCreation()) {
+            add(event.startDate(), event.previousRoomId(), event.previousStatus(), -1, -nights);
+        }
+        add(event.startDate(), event.roomId(), event.status(), 1, nights);
+    }
+
+    /**
+     * Дневные агрегаты из rollup-таблицы за [from, toExclusive); roomId == null — по всем номерам.
+     * Строки разных шардов с одним ключом не сливаются — их суммирует AnalyticsService при свёртке в периоды.
+     */
+    @Transactional(readOnly = true)
+    public List<DailyBookingAggregate> readDaily(LocalDate from, LocalDate toExclusive, Long roomId) {
+        String sql = """
+                SELECT start_date, room_id, status, bookings, nights
+                FROM booking_daily_rollup
+                WHERE start_date >= ? AND start_date < ? AND bookings <> 0
+                """;
+        List<Object> args = new ArrayList<>(List.of(from, toExclusive));
+        if (roomId != null) {
+            sql += " AND room_id = ?";
+            args.add(roomId);
+        }
+        String query = sql;
+        List<List<DailyBookingAggregate>> perShard = shardRouter.gather(shard ->
+                jdbcTemplate.query(query, (rs, rowNum) -> {
+                    long room = rs.getLong("room_id");
+                    return new DailyBookingAggregate(
+                            rs.getObject("start_date", LocalDate.class),
+                            room == NO_ROOM ? null : room,
+                            BookingStatus.valueOf(rs.getString("status")),
+                            rs.getLong("bookings"),
+                            rs.getLong("nights"));
+                }, args.toArray()));
+
+        List<DailyBookingAggregate> daily = new ArrayList<>();
+        perShard.forEach(daily::addAll);
+        return daily;
+    }
+
+    /**
+     * Пересчёт с нуля по таблице bookings — после загрузки данных в обход BookingService
+     * (тестовые и синтетические данные) или при подозрении на расхождение.
+     * Каждый шард пересчитывается в своей транзакции по своей таблице bookings.
+     * Вызывается вне транзакции: write-lock берётся до первой из них и отпускается после commit последней.
+     *
+     * @return число строк rollup-таблицы, суммарно по шардам
+     */
+    public int rebuild() {
+        Lock lock = rebuildLock.writeLock();
+        lock.lock();
+        try {
+            return shardRouter.eachShard(shard -> transactionTemplate.execute(status -> rebuildInTransaction(shard)))
+                    .stream()
+                    .mapToInt(Integer::intValue)
+                    .sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int rebuildInTransaction(int shard) {
+        long started = System.currentTimeMillis();
+        List<DailyBookingAggregate> daily = bookingRepository.aggregateDaily(MIN_DATE, MAX_DATE);
+
+        jdbcTemplate.update("DELETE FROM booking_daily_rollup");
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO booking_daily_rollup (start_date, room_id, status, bookings, nights)
+                        VALUES (?, ?, ?, ?, ?)
+                        """,
+                daily, 1_000, (ps, aggregate) -> {
+                    ps.setObject(1, aggregate.getDay());
+                    ps.setLong(2, aggregate.getRoomId() != null ? aggregate.getRoomId() : NO_ROOM);
+                    ps.setString(3, aggregate.getStatus().name());
+                    ps.setLong(4, aggregate.getBookings());
+                    ps.setLong(5, aggregate.getNights() != null ? aggregate.getNights() : 0);
+                });
+
+        // архивные бронирования (BookingArchiver) остаются в истории
+        List<Object[]> archived = jdbcTemplate.query(ARCHIVE_AGGREGATE, (rs, rowNum) -> new Object[]{
+                rs.getObject("start_date", LocalDate.class),
+                rs.getObject("room_id", Long.class) != null ? rs.getLong("room_id") : NO_ROOM,
+                rs.getString("status"),
+                rs.getLong("bookings"),
+                rs.getLong("nights")});
+        jdbcTemplate.batchUpdate(UPSERT, archived);
+
+        log.info("Rebuilt booking rollup on shard {}: {} rows ({} archive groups) in {} ms",
+                shard, daily.size(), archived.size(), System.currentTimeMillis() - started);
+        return daily.size();
+    }
+
+    private void add(LocalDate day, Long roomId, BookingStatus status, long bookings, long nights) {
+        if (status == null) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT, day, roomId != null ? roomId : NO_ROOM, status.name(), bookings, nights);
+    }
+}
@@ -3,12 +3,20 @@ package com.daniil.bookingservice.service;
 import com.daniil.bookingservice.dto.BookingRequest;
 import com.daniil.bookingservice.entity.Booking;
 import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import com.daniil.bookingservice.jfr.BookingPhaseEvent;
+import com.daniil.bookingservice.jfr.HotelServiceCallEvent;
+import com.daniil.bookingservice.repository.BookingArchiveRepository;
 import com.daniil.bookingservice.repository.BookingRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -23,9 +31,24 @@ public class BookingService {
 
     private final BookingRepository bookingRepository;
     private final RestTemplate restTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotelServiceRetry hotelServiceRetry;
+    private final PendingBookingQueue pendingBookingQueue;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
     private static final String HOTEL_SERVICE = "http://hotel-service";
 
-    @Transactional
+    /**
+     * Degraded mode: при открытом hotelServiceCB бронирование принимается как PENDING без номера
+     * и ставится в очередь, которую разбирает PendingBookingDrainer.
+     */
+    @Value("${booking.degraded-mode.enabled:false}")
+    private boolean degradedModeEnabled;
+
+    /**
+     * Без общей транзакции: вызовы hotel-service с повторами и паузами идут вне транзакции, чтобы не держать
+     * соединение с БД, а каждое изменение бронирования коммитится своей короткой транзакцией.
+     */
     @CircuitBreaker(name = "hotelServiceCB", fallbackMethod = "fallbackCreateBooking")
     public Booking createBooking(BookingRequest request, Long userId) {
         String correlationId = request.getCorrelationId() != null
@@ -33,35 +56,108 @@ public class BookingService {
                 : UUID.randomUUID().toString();
 
         // Идемпотентность
+        BookingPhaseEvent idempotency = BookingPhaseEvent.begin("idempotency", correlationId);
         Optional<Booking> existing = bookingRepository.findByCorrelationId(correlationId);
         if (existing.isPresent()) {
+            idempotency.end(existing.get().getRoomId(), "duplicate");
             log.info("[{}] Booking already exists -> id={}", correlationId, existing.get().getId());
             return existing.get();
         }
+        idempotency.end(null, "new");
 
         log.info("[{}] Starting booking from {} to {}", correlationId, request.getStartDate(), request.getEndDate());
 
         // Запрашиваем оптимальный номер
-        Long allocatedRoomId = restTemplate.getForObject(HOTEL_SERVICE + "/api/rooms/allocate", Long.class);
+        BookingPhaseEvent allocate = BookingPhaseEvent.begin("allocate", correlationId);
+        Long allocatedRoomId;
+        try {
+            allocatedRoomId = allocateRoom(correlationId);
+        } catch (RuntimeException e) {
+            allocate.end(null, e.getClass().getSimpleName());
+            throw e;
+        }
+        allocate.end(allocatedRoomId, allocatedRoomId == null ? "no-rooms" : "allocated");
         if (allocatedRoomId == null) {
             log.error("[{}] No rooms available", correlationId);
-            return saveBooking(userId, null, request, BookingStatus.CANCELLED, correlationId);
+            return transactionTemplate.execute(status ->
+                    saveBooking(userId, null, request, BookingStatus.CANCELLED, correlationId));
         }
 
         log.info("[{}] Allocated roomId={}", correlationId, allocatedRoomId);
-        Booking booking = saveBooking(userId, allocatedRoomId, request, BookingStatus.PENDING, correlationId);
+        BookingPhaseEvent persist = BookingPhaseEvent.begin("persist", correlationId);
+        Booking booking = transactionTemplate.execute(status ->
+                saveBooking(userId, allocatedRoomId, request, BookingStatus.PENDING, correlationId));
+        persist.end(allocatedRoomId, "ok");
+
+        BookingPhaseEvent confirm = BookingPhaseEvent.begin("confirm", correlationId);
+        confirmOrCompensate(booking, correlationId);
+        confirm.end(allocatedRoomId, String.valueOf(booking.getStatus()));
+        return booking;
+    }
 
-        try {
-            restTemplate.postForEntity(HOTEL_SERVICE + "/api/rooms/" + allocatedRoomId + "/confirm", null, Void.class);
-            booking.setStatus(BookingStatus.CONFIRMED);
+    /**
+     * Доводит до конца бронирование, принятое в degraded mode: выделяет номер и подтверждает его.
+     * Повторный вызов для уже обработанного бронирования ничего не делает. Транзакции — как в createBooking.
+     * Бронирование читается в read-write транзакции, то есть из основной БД: у drainer нет запроса,
+     * ReadYourWritesFilter его не закрепляет, а на отстающей реплике бронирования может ещё не быть.
+     */
+    @CircuitBreaker(name = "hotelServiceCB")
+    public Booking processQueuedBooking(Long bookingId) {
+        Booking booking = transactionTemplate.execute(status -> bookingRepository.findById(bookingId).orElse(null));
+        if (booking == null || booking.getStatus() != BookingStatus.PENDING || booking.getRoomId() != null) {
+            return booking;
+        }
+        String correlationId = booking.getCorrelationId();
+
+        Long allocatedRoomId = allocateRoom(correlationId);
+        if (allocatedRoomId == null) {
+            log.error("[{}] No rooms available for queued booking", correlationId);
+            transactionTemplate.executeWithoutResult(status -> changeStatus(booking, BookingStatus.CANCELLED));
+            return booking;
+        }
+
+        log.info("[{}] Allocated roomId={} for queued booking", correlationId, allocatedRoomId);
+        booking.setRoomId(allocatedRoomId);
+        transactionTemplate.executeWithoutResult(status -> {
             bookingRepository.save(booking);
-            log.info("[{}] Booking confirmed successfully", correlationId);
+            eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, null, BookingStatus.PENDING));
+        });
+        confirmOrCompensate(booking, correlationId);
+        return booking;
+    }
+
+    /**
+     * Отмена бронирования из очереди degraded mode, которое не удалось обработать за max-attempts попыток.
+     */
+    public void cancelQueuedBooking(Long bookingId) {
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.findById(bookingId)
+                .filter(booking -> booking.getStatus() == BookingStatus.PENDING && booking.getRoomId() == null)
+                .ifPresent(booking -> changeStatus(booking, BookingStatus.CANCELLED)));
+    }
+
+    private Long allocateRoom(String correlationId) {
+        return hotelServiceRetry.callNonIdempotent("allocate", () -> HotelServiceCallEvent.call("allocate", correlationId, null,
+                () -> restTemplate.getForObject(HOTEL_SERVICE + "/api/rooms/allocate", Long.class)));
+    }
+
+    private void confirmOrCompensate(Booking booking, String correlationId) {
+        Long roomId = booking.getRoomId();
+        try {
+            hotelServiceRetry.run("confirm", () -> HotelServiceCallEvent.run("confirm", correlationId, roomId,
+                    () -> restTemplate.postForEntity(HOTEL_SERVICE + "/api/rooms/" + roomId + "/confirm", null, Void.class)));
         } catch (Exception ex) {
             log.error("[{}] Confirm failed: {}", correlationId, ex.getMessage());
-            performCompensation(allocatedRoomId, booking, correlationId);
+            performCompensation(roomId, booking, correlationId);
+            return;
         }
-
-        return booking;
+        if (Boolean.TRUE.equals(transactionTemplate.execute(status -> changeStatus(booking, BookingStatus.CONFIRMED)))) {
+            log.info("[{}] Booking confirmed successfully", correlationId);
+            return;
+        }
+        // бронирование отменили, пока шёл confirm (массовая отмена): номер, подтверждённый после её release,
+        // освобождается, статус остаётся тем, что записала отмена
+        log.warn("[{}] Booking was cancelled during confirm, releasing room {}", correlationId, roomId);
+        releaseRoom(roomId, correlationId);
     }
 
     Booking saveBooking(Long userId, Long roomId, BookingRequest request, BookingStatus status, String correlationId) {
@@ -74,28 +170,84 @@ public class BookingService {
                 .createdAt(LocalDateTime.now())
                 .correlationId(correlationId)
                 .build();
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(saved, null, null));
+        return saved;
+    }
+
+    /**
+     * Все переходы статуса идут через этот метод: слушатели BookingStatusChangedEvent
+     * (rollup-счётчики и т.д.) обновляются в той же транзакции. Переход условный — из статуса, который
+     * видит booking; если его уже изменили (массовая отмена), событие не публикуется, а booking получает
+     * статус из БД.
+     *
+     * @return false — статус бронирования в БД уже другой
+     */
+    boolean changeStatus(Booking booking, BookingStatus status) {
+        BookingStatus previous = booking.getStatus();
+        if (bookingRepository.updateStatusIfCurrent(booking.getId(), previous, status) == 0) {
+            log.warn("[{}] Booking id={} is no longer {}, {} skipped",
+                    booking.getCorrelationId(), booking.getId(), previous, status);
+            bookingRepository.findById(booking.getId()).ifPresent(current -> booking.setStatus(current.getStatus()));
+            return false;
+        }
+        booking.setStatus(status);
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, booking.getRoomId(), previous));
+        return true;
     }
 
-    private Booking fallbackCreateBooking(BookingRequest request, Long userId, Throwable ex) {
-        String correlationId = UUID.randomUUID().toString();
+    Booking fallbackCreateBooking(BookingRequest request, Long userId, Throwable ex) {
+        // исходный correlationId сохраняется, чтобы повтор запроса вернул то же бронирование
+        String correlationId = request.getCorrelationId() != null
+                ? request.getCorrelationId()
+                : UUID.randomUUID().toString();
+        Optional<Booking> existing = bookingRepository.findByCorrelationId(correlationId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        BookingPhaseEvent fallback = BookingPhaseEvent.begin("fallback", correlationId);
+        if (degradedModeEnabled && ex instanceof CallNotPermittedException) {
+            // бронирование и запись очереди — одним commit: иначе PENDING без записи никто не разберёт
+            Booking booking = transactionTemplate.execute(status -> {
+                Booking saved = saveBooking(userId, null, request, BookingStatus.PENDING, correlationId);
+                pendingBookingQueue.enqueue(saved.getId(), correlationId);
+                return saved;
+            });
+            fallback.end(null, "queued");
+            log.warn("[{}] CircuitBreaker OPEN — booking id={} queued", correlationId, booking.getId());
+            return booking;
+        }
+
         log.error("[{}] CircuitBreaker OPEN — booking cancelled: {}", correlationId, ex.getMessage());
-        return saveBooking(userId, null, request, BookingStatus.CANCELLED, correlationId);
+        Booking cancelled = transactionTemplate.execute(status ->
+                saveBooking(userId, null, request, BookingStatus.CANCELLED, correlationId));
+        fallback.end(null, "cancelled");
+        return cancelled;
     }
 
     private void performCompensation(Long roomId, Booking booking, String correlationId) {
+        releaseRoom(roomId, correlationId);
+        transactionTemplate.executeWithoutResult(status -> changeStatus(booking, BookingStatus.CANCELLED));
+    }
+
+    private void releaseRoom(Long roomId, String correlationId) {
         try {
-            restTemplate.postForEntity(HOTEL_SERVICE + "/api/rooms/" + roomId + "/release", null, Void.class);
+            hotelServiceRetry.run("release", () -> HotelServiceCallEvent.run("release", correlationId, roomId,
+                    () -> restTemplate.postForEntity(HOTEL_SERVICE + "/api/rooms/" + roomId + "/release", null, Void.class)));
             log.info("[{}] Room released successfully", correlationId);
         } catch (Exception e) {
             log.error("[{}] Compensation failed: {}", correlationId, e.getMessage());
         }
-        booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
     }
 
+    /**
+     * Сначала живая таблица, затем архив (BookingArchiver). Читается с реплики, если она настроена.
+     */
+    @Transactional(readOnly = true)
     public Optional<Booking> getBooking(Long id) {
-        return bookingRepository.findById(id);
+        return bookingRepository.findById(id)
+                .or(() -> bookingArchiveRepository.findById(id));
     }
 }
 
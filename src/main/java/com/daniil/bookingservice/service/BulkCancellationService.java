@@ -0,0 +1,211 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.BulkCancelJob;
+import com.daniil.bookingservice.dto.BulkCancelRequest;
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import com.daniil.bookingservice.jfr.HotelServiceCallEvent;
+import com.daniil.bookingservice.repository.BookingRepository;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Массовая отмена бронирований по номерам и диапазону дат.
+ *
+ * <p>Пачка обрабатывается в одной транзакции: SELECT ... FOR UPDATE по keyset, один UPDATE по списку id
+ * и BookingStatusChangedEvent на каждую строку (rollup, календарь и журнал обновляются как при обычной отмене).
+ * После commit номера пачки освобождаются в hotel-service не более чем release-concurrency вызовами одновременно.
+ * При шардировании шарды обходятся по очереди, keyset начинается заново на каждом.
+ */
+@Slf4j
+@Service
+public class BulkCancellationService {
+
+    private static final String HOTEL_SERVICE = "http://hotel-service";
+    private static final List<BookingStatus> CANCELLABLE = List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+    private static final int MAX_JOBS = 100;
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RestTemplate restTemplate;
+    private final HotelServiceRetry hotelServiceRetry;
+    private final CacheManager cacheManager;
+    private final ShardRouter shardRouter;
+    private final int chunkSize;
+
+    private final ExecutorService jobExecutor;
+    private final ExecutorService releaseExecutor;
+    private final Map<String, BulkCancelJob> jobs = new LinkedHashMap<>();
+
+    public BulkCancellationService(BookingRepository bookingRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   RestTemplate restTemplate,
+                                   HotelServiceRetry hotelServiceRetry,
+                                   CacheManager cacheManager,
+                                   ShardRouter shardRouter,
+                                   @Value("${booking.bulk-cancel.chunk-size:500}") int chunkSize,
+                                   @Value("${booking.bulk-cancel.release-concurrency:8}") int releaseConcurrency) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.restTemplate = restTemplate;
+        this.hotelServiceRetry = hotelServiceRetry;
+        this.cacheManager = cacheManager;
+        this.shardRouter = shardRouter;
+        this.chunkSize = chunkSize;
+        this.jobExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "bulk-cancel"));
+        AtomicInteger releaseThreads = new AtomicInteger();
+        this.releaseExecutor = Executors.newFixedThreadPool(Math.max(1, releaseConcurrency),
+                r -> new Thread(r, "bulk-cancel-release-" + releaseThreads.incrementAndGet()));
+    }
+
+    /**
+     * Ставит задачу в очередь; задачи выполняются по одной.
+     */
+    public BulkCancelJob start(BulkCancelRequest request) {
+        if (request.getRoomIds() == null || request.getRoomIds().isEmpty()
+                || request.getFrom() == null || request.getTo() == null
+                || !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("roomIds must be non-empty and from must be before to");
+        }
+        BulkCancelJob job = new BulkCancelJob(UUID.randomUUID().toString(), request, Instant.now());
+        synchronized (jobs) {
+            if (jobs.size() >= MAX_JOBS) {
+                jobs.values().removeIf(old -> old.getState() != BulkCancelJob.State.RUNNING);
+            }
+            jobs.put(job.getJobId(), job);
+        }
+        jobExecutor.submit(() -> run(job));
+        return job;
+    }
+
+    public Optional<BulkCancelJob> getJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    void run(BulkCancelJob job) {
+        BulkCancelRequest request = job.getRequest();
+        try {
+            shardRouter.eachShard(shard -> {
+                cancelOnShard(job, request);
+                return null;
+            });
+            job.setState(BulkCancelJob.State.COMPLETED);
+        } catch (Exception e) {
+            log.error("Bulk cancel {} failed: {}", job.getJobId(), e.getMessage(), e);
+            job.setError(e.getMessage());
+            job.setState(BulkCancelJob.State.FAILED);
+        } finally {
+            job.setFinishedAt(Instant.now());
+            // закэшированная статистика закрытых периодов могла включать отменённые бронирования
+            Cache occupancy = cacheManager.getCache("occupancy");
+            if (occupancy != null) {
+                occupancy.clear();
+            }
+            log.info("Bulk cancel {} {}: {} bookings cancelled, {} rooms released, {} release failures",
+                    job.getJobId(), job.getState(), job.getCancelled(), job.getRoomsReleased(), job.getReleaseFailures());
+        }
+    }
+
+    private void cancelOnShard(BulkCancelJob job, BulkCancelRequest request) {
+        long afterId = 0;
+        while (true) {
+            long lastId = afterId;
+            List<Booking> chunk = transactionTemplate.execute(status -> cancelChunk(request, lastId));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            job.setChunks(job.getChunks() + 1);
+            job.setCancelled(job.getCancelled() + chunk.size());
+            releaseRooms(job, chunk);
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    /**
+     * @return отменённые в этой пачке бронирования со статусом до отмены
+     */
+    private List<Booking> cancelChunk(BulkCancelRequest request, long afterId) {
+        List<Booking> chunk = bookingRepository.findChunkForBulkCancel(request.getRoomIds(), CANCELLABLE,
+                request.getFrom(), request.getTo(), afterId, PageRequest.ofSize(chunkSize));
+        if (chunk.isEmpty()) {
+            return chunk;
+        }
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (Booking booking : chunk) {
+            ids.add(booking.getId());
+        }
+        bookingRepository.updateStatus(ids, BookingStatus.CANCELLED);
+        for (Booking booking : chunk) {
+            eventPublisher.publishEvent(new BookingStatusChangedEvent(
+                    booking.getId(),
+                    booking.getUserId(),
+                    booking.getCorrelationId(),
+                    booking.getStartDate(),
+                    booking.getEndDate(),
+                    booking.getRoomId(),
+                    booking.getStatus(),
+                    booking.getRoomId(),
+                    BookingStatus.CANCELLED));
+        }
+        return chunk;
+    }
+
+    private void releaseRooms(BulkCancelJob job, List<Booking> chunk) {
+        List<CompletableFuture<Boolean>> releases = new ArrayList<>(chunk.size());
+        for (Booking booking : chunk) {
+            Long roomId = booking.getRoomId();
+            releases.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    hotelServiceRetry.run("release", () -> HotelServiceCallEvent.run("release", booking.getCorrelationId(), roomId,
+                            () -> restTemplate.postForEntity(HOTEL_SERVICE + "/api/rooms/" + roomId + "/release", null, Void.class)));
+                    return true;
+                } catch (Exception e) {
+                    log.warn("[{}] Release of room {} failed: {}", booking.getCorrelationId(), roomId, e.getMessage());
+                    return false;
+                }
+            }, releaseExecutor));
+        }
+        long released = 0;
+        for (CompletableFuture<Boolean> release : releases) {
+            if (release.join()) {
+                released++;
+            }
+        }
+        job.setRoomsReleased(job.getRoomsReleased() + released);
+        job.setReleaseFailures(job.getReleaseFailures() + chunk.size() - released);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        releaseExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,148 @@
+package com.daniil.bookingservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Повторы вызовов hotel-service по настройкам resilience4j.retry.instances.hotelServiceRetry:
+ * экспоненциальная задержка с full jitter, общий retry budget и дедлайн запроса.
+ *
+ * <p>Budget — token bucket: каждый первый вызов кладёт budget-ratio токена (не больше budget-capacity),
+ * каждый повтор забирает один. Поэтому повторов не больше ~budget-ratio от потока вызовов,
+ * и во время аварии hotel-service не получает кратной нагрузки.
+ *
+ * <p>Повторяются только сетевые ошибки и 5xx; 4xx и прочие ошибки пробрасываются сразу.
+ * Неидемпотентные вызовы (allocate) повторяются, только если запрос не был отправлен.
+ *
+ * <p>Между попытками поток спит, поэтому вызывать повторы внутри транзакции нельзя — она держала бы
+ * соединение с БД всё время ожидания.
+ */
+@Slf4j
+@Component
+public class HotelServiceRetry {
+
+    private static final long MILLI_TOKENS = 1_000;
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseWaitMs;
+    private final long maxWaitMs;
+    private final long depositMilliTokens;
+    private final long capacityMilliTokens;
+    private final AtomicLong milliTokens;
+
+    public HotelServiceRetry(MeterRegistry meterRegistry,
+                             @Value("${resilience4j.retry.instances.hotelServiceRetry.max-attempts:3}") int maxAttempts,
+                             @Value("${resilience4j.retry.instances.hotelServiceRetry.wait-duration:2s}") Duration baseWait,
+                             @Value("${booking.retry.max-wait:10s}") Duration maxWait,
+                             @Value("${booking.retry.budget-ratio:0.1}") double budgetRatio,
+                             @Value("${booking.retry.budget-capacity:10}") int budgetCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseWaitMs = baseWait.toMillis();
+        this.maxWaitMs = maxWait.toMillis();
+        this.depositMilliTokens = (long) (budgetRatio * MILLI_TOKENS);
+        this.capacityMilliTokens = budgetCapacity * MILLI_TOKENS;
+        this.milliTokens = new AtomicLong(capacityMilliTokens);
+    }
+
+    public <T> T call(String operation, Supplier<T> call) {
+        return call(operation, call, e -> e instanceof ResourceAccessException || e instanceof HttpServerErrorException);
+    }
+
+    /**
+     * Повтор только при отказе в соединении: таймаут чтения или 5xx означают, что hotel-service мог
+     * выполнить запрос, и повтор выделил бы второй номер.
+     */
+    public <T> T callNonIdempotent(String operation, Supplier<T> call) {
+        return call(operation, call, HotelServiceRetry::notSent);
+    }
+
+    public void run(String operation, Runnable call) {
+        call(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private static boolean notSent(RuntimeException e) {
+        return e instanceof ResourceAccessException && e.getCause() instanceof ConnectException;
+    }
+
+    private <T> T call(String operation, Supplier<T> call, Predicate<RuntimeException> retryable) {
+        deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (!retryable.test(e) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                long waitMs = backoff(attempt);
+                if (waitMs >= RequestDeadline.remainingMs()) {
+                    count(operation, "denied_deadline");
+                    throw e;
+                }
+                if (!withdraw()) {
+                    count(operation, "denied_budget");
+                    throw e;
+                }
+                count(operation, "spent");
+                log.warn("hotel-service {} failed (attempt {}/{}), retrying in {} ms: {}",
+                        operation, attempt, maxAttempts, waitMs, e.getMessage());
+                sleep(waitMs, e);
+            }
+        }
+    }
+
+    /**
+     * Full jitter: случайная задержка в [0, min(max-wait, wait-duration * 2^(attempt-1))].
+     */
+    long backoff(int attempt) {
+        long ceiling = Math.min(maxWaitMs, baseWaitMs << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    long availableRetries() {
+        return milliTokens.get() / MILLI_TOKENS;
+    }
+
+    private void deposit() {
+        milliTokens.accumulateAndGet(depositMilliTokens, (current, d) -> Math.min(capacityMilliTokens, current + d));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = milliTokens.get();
+            if (current < MILLI_TOKENS) {
+                return false;
+            }
+        } while (!milliTokens.compareAndSet(current, current - MILLI_TOKENS));
+        return true;
+    }
+
+    private void count(String operation, String outcome) {
+        meterRegistry.counter("booking.hotel.retries", "operation", operation, "outcome", outcome).increment();
+    }
+
+    private static void sleep(long waitMs, RuntimeException cause) {
+        try {
+            Thread.sleep(waitMs);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
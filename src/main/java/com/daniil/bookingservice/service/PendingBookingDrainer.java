@@ -0,0 +1,121 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.sharding.ShardRouter;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Разбор очереди degraded mode: только при закрытом hotelServiceCB и не больше batch-size
+ * бронирований за drain-interval-ms, чтобы восстанавливающийся hotel-service не получил весь накопленный поток разом.
+ * Ошибка одной записи не прерывает пачку (её прерывает открывшийся circuit breaker): запись получает
+ * попытку и уходит в конец очереди, а после max-attempts попыток бронирование отменяется, запись — в dead letter.
+ * Пачка берётся в аренду (PendingBookingQueue.claim), поэтому несколько экземпляров сервиса не разбирают
+ * одну запись дважды и не выделяют на неё два номера.
+ * При шардировании у каждого шарда своя очередь, пачка разбирается на каждом.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "booking.degraded-mode.enabled", havingValue = "true")
+public class PendingBookingDrainer {
+
+    private static final String HOTEL_SERVICE_CB = "hotelServiceCB";
+
+    private final PendingBookingQueue queue;
+    private final BookingService bookingService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    public PendingBookingDrainer(PendingBookingQueue queue,
+                                 BookingService bookingService,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 ShardRouter shardRouter,
+                                 @Value("${booking.degraded-mode.batch-size:20}") int batchSize,
+                                 @Value("${booking.degraded-mode.max-attempts:5}") int maxAttempts) {
+        this.queue = queue;
+        this.bookingService = bookingService;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.degraded-mode.drain-interval-ms:1000}")
+    public int drain() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(HOTEL_SERVICE_CB);
+        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return 0;
+        }
+
+        int drained = shardRouter.eachShard(shard -> drainShard(circuitBreaker))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (drained > 0) {
+            log.info("Drained {} queued bookings", drained);
+        }
+        return drained;
+    }
+
+    private int drainShard(CircuitBreaker circuitBreaker) {
+        List<PendingBookingQueue.Entry> batch = queue.claim(batchSize);
+        int drained = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingBookingQueue.Entry entry = batch.get(i);
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                releaseRest(batch, i);
+                break;
+            }
+            try {
+                bookingService.processQueuedBooking(entry.bookingId());
+                queue.remove(entry.id());
+                drained++;
+            } catch (CallNotPermittedException e) {
+                // circuit breaker открылся посреди пачки — попытка не засчитывается
+                releaseRest(batch, i);
+                break;
+            } catch (Exception e) {
+                fail(entry, e);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Неразобранный остаток пачки возвращается в очередь сразу, не дожидаясь истечения аренды.
+     */
+    private void releaseRest(List<PendingBookingQueue.Entry> batch, int from) {
+        for (PendingBookingQueue.Entry entry : batch.subList(from, batch.size())) {
+            queue.release(entry.id());
+        }
+    }
+
+    private void fail(PendingBookingQueue.Entry entry, Exception cause) {
+        int attempt = entry.attempts() + 1;
+        if (attempt < maxAttempts) {
+            queue.markFailed(entry.id());
+            log.warn("[{}] Queued booking {} failed (attempt {}/{}): {}",
+                    entry.correlationId(), entry.bookingId(), attempt, maxAttempts, cause.getMessage());
+            return;
+        }
+        log.error("[{}] Queued booking {} failed {} times, cancelling: {}",
+                entry.correlationId(), entry.bookingId(), attempt, cause.getMessage());
+        try {
+            bookingService.cancelQueuedBooking(entry.bookingId());
+            queue.deadLetter(entry.id());
+        } catch (Exception e) {
+            queue.markFailed(entry.id());
+            log.error("[{}] Could not dead-letter queued booking {}: {}",
+                    entry.correlationId(), entry.bookingId(), e.getMessage());
+        }
+    }
+}
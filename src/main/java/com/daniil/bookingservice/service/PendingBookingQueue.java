@@ -0,0 +1,128 @@
+package com.daniil.bookingservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Очередь бронирований, принятых в degraded mode, в таблице pending_booking_requests.
+ * Хранится в той же БД, что и bookings, поэтому переживает рестарт вместе с ними.
+ * Записи, перенесённые в dead letter, остаются в таблице, но не выбираются и не считаются в size.
+ *
+ * <p>Запись разбирает один экземпляр сервиса: claim берёт её в аренду на claim-timeout условным UPDATE,
+ * и пока аренда не истекла, другие экземпляры её не выбирают. remove, markFailed и deadLetter аренду
+ * завершают; аренда упавшего экземпляра истекает, и запись подбирает следующий.
+ */
+@Service
+public class PendingBookingQueue {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final Duration claimTimeout;
+
+    @Autowired
+    public PendingBookingQueue(JdbcTemplate jdbcTemplate,
+                               @Value("${booking.degraded-mode.claim-timeout:5m}") Duration claimTimeout) {
+        // pid@host — видно в таблице, какой экземпляр держит запись
+        this(jdbcTemplate, ManagementFactory.getRuntimeMXBean().getName(), claimTimeout);
+    }
+
+    PendingBookingQueue(JdbcTemplate jdbcTemplate, String owner, Duration claimTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.claimTimeout = claimTimeout;
+    }
+
+    public record Entry(long id, long bookingId, String correlationId, int attempts) {
+    }
+
+    public void enqueue(Long bookingId, String correlationId) {
+        jdbcTemplate.update("""
+                        INSERT INTO pending_booking_requests (booking_id, correlation_id, enqueued_at)
+                        VALUES (?, ?, ?)
+                        """,
+                bookingId, correlationId, LocalDateTime.now());
+    }
+
+    /**
+     * Берёт в аренду до limit свободных записей: сначала с меньшим числом неудачных попыток, среди них —
+     * в порядке поступления, чтобы одна сбойная запись не задерживала остальные. Запись, которую между
+     * выборкой и UPDATE взял другой экземпляр, пропускается.
+     */
+    public List<Entry> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Entry> candidates = jdbcTemplate.query("""
+                        SELECT id, booking_id, correlation_id, attempts
+                        FROM pending_booking_requests
+                        WHERE dead_lettered_at IS NULL AND (claimed_until IS NULL OR claimed_until < ?)
+                        ORDER BY attempts, id
+                        LIMIT ?
+                        """,
+                (rs, rowNum) -> new Entry(
+                        rs.getLong("id"),
+                        rs.getLong("booking_id"),
+                        rs.getString("correlation_id"),
+                        rs.getInt("attempts")),
+                now, limit);
+
+        List<Entry> claimed = new ArrayList<>(candidates.size());
+        LocalDateTime until = now.plus(claimTimeout);
+        for (Entry candidate : candidates) {
+            int updated = jdbcTemplate.update("""
+                            UPDATE pending_booking_requests SET claimed_by = ?, claimed_until = ?
+                            WHERE id = ? AND dead_lettered_at IS NULL AND (claimed_until IS NULL OR claimed_until < ?)
+                            """,
+                    owner, until, candidate.id(), now);
+            if (updated == 1) {
+                claimed.add(candidate);
+            }
+        }
+        return claimed;
+    }
+
+    public void remove(long id) {
+        jdbcTemplate.update("DELETE FROM pending_booking_requests WHERE id = ?", id);
+    }
+
+    /**
+     * Возвращает запись в очередь без попытки — её разбор не начинался (открылся circuit breaker).
+     */
+    public void release(long id) {
+        jdbcTemplate.update("""
+                        UPDATE pending_booking_requests SET claimed_by = NULL, claimed_until = NULL
+                        WHERE id = ? AND claimed_by = ?
+                        """,
+                id, owner);
+    }
+
+    public void markFailed(long id) {
+        jdbcTemplate.update("""
+                        UPDATE pending_booking_requests
+                        SET attempts = attempts + 1, claimed_by = NULL, claimed_until = NULL
+                        WHERE id = ?
+                        """,
+                id);
+    }
+
+    public void deadLetter(long id) {
+        jdbcTemplate.update("""
+                        UPDATE pending_booking_requests
+                        SET dead_lettered_at = ?, claimed_by = NULL, claimed_until = NULL
+                        WHERE id = ?
+                        """,
+                LocalDateTime.now(), id);
+    }
+
+    public long size() {
+        Long size = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pending_booking_requests WHERE dead_lettered_at IS NULL", Long.class);
+        return size != null ? size : 0;
+    }
+}
@@ -0,0 +1,123 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.entity.RefreshToken;
+import com.daniil.bookingservice.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Ротируемые refresh-токены. Токен — 256 случайных бит, в БД только его SHA-256:
+ * токен не подбирается, поэтому медленный хэш (BCrypt) не нужен, а поиск идёт по уникальному индексу.
+ *
+ * <p>Каждый обмен выдаёт новый токен той же семьи и гасит старый. Предъявление уже обменянного
+ * токена означает утечку одной из копий — отзывается вся семья.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${booking.auth.refresh-token-ttl:14d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Результат обмена: владелец и новый refresh-токен.
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    /**
+     * Новая семья токенов — при входе по паролю.
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * @return новый токен или empty, если токен неизвестен, истёк, отозван или уже был обменян
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return Optional.empty();
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken)).orElse(null);
+        if (current == null || current.isRevoked()) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId());
+            log.warn("Refresh token reuse detected for user {}: revoked {} tokens of family {}",
+                    current.getUserId(), revoked, current.getFamilyId());
+            return Optional.empty();
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            return Optional.empty();
+        }
+        return Optional.of(new Rotation(current.getUserId(), issue(current.getUserId(), current.getFamilyId())));
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId);
+    }
+
+    /**
+     * Обменянные токены хранятся до истечения: по ним ловится повторное использование.
+     */
+    @Scheduled(cron = "${booking.auth.refresh-token-purge-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .userId(userId)
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build());
+        return rawToken;
+    }
+
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.daniil.bookingservice.service;
+
+/**
+ * Дедлайн текущего запроса (System.nanoTime()), выставляется RequestDeadlineFilter
+ * из заголовка X-Request-Timeout-Ms. Без заголовка дедлайна нет.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void set(long timeoutMs) {
+        DEADLINE.set(System.nanoTime() + timeoutMs * 1_000_000);
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * @return оставшееся время в мс или Long.MAX_VALUE, если дедлайн не задан
+     */
+    public static long remainingMs() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE : (deadline - System.nanoTime()) / 1_000_000;
+    }
+}
@@ -0,0 +1,211 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import com.daniil.bookingservice.event.BookingsBulkLoadedEvent;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Календарь занятости номеров в памяти: по битовой карте на номер, один бит — одна ночь
+ * начиная с origin. Бит взведён, если ночь занята PENDING или CONFIRMED бронированием.
+ *
+ * <p>Память: 366 бит = 6 long = 48 байт на номер-год; при горизонте 730 дней —
+ * 12 long (96 байт) плюс ~80 байт на AtomicLongArray, ключ и запись в map, т.е. ~180 байт на номер.
+ *
+ * <p>Известны только номера, которые встречались в бронированиях: инвентарь номеров живёт в hotel-service.
+ * Пересекающиеся бронирования одного номера не ожидаются (номер выделяет hotel-service),
+ * поэтому снятие бронирования просто гасит его биты.
+ *
+ * <p>Переходы, пришедшие во время перестройки, применяются к текущему снимку и запоминаются; после чтения БД
+ * они повторяются на новом снимке до его публикации (установка и снятие битов идемпотентны, поэтому переход,
+ * который запрос уже увидел, ничего не портит).
+ */
+@Slf4j
+@Component
+public class RoomAvailabilityCalendar {
+
+    private static final String OCCUPIED_BOOKINGS = """
+            SELECT room_id, start_date, end_date
+            FROM bookings
+            WHERE room_id IS NOT NULL AND status IN ('PENDING', 'CONFIRMED')
+              AND end_date > ? AND start_date < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final int horizonDays;
+    private final int words;
+
+    private volatile Snapshot snapshot;
+
+    private final Object updateLock = new Object();
+    /** переходы с начала текущей перестройки; null — перестройки нет. Под updateLock */
+    private List<BookingStatusChangedEvent> duringRebuild;
+
+    private record Snapshot(LocalDate origin, Map<Long, AtomicLongArray> rooms) {
+    }
+
+    public RoomAvailabilityCalendar(JdbcTemplate jdbcTemplate,
+                                    ShardRouter shardRouter,
+                                    @Value("${booking.availability.horizon-days:730}") int horizonDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.horizonDays = horizonDays;
+        this.words = (horizonDays + 63) >>> 6;
+        this.snapshot = new Snapshot(LocalDate.now(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Полная перестройка из БД (со всех шардов параллельно); раз в сутки сдвигает origin на сегодняшний день.
+     */
+    @EventListener({ApplicationReadyEvent.class, BookingsBulkLoadedEvent.class})
+    @Scheduled(cron = "${booking.availability.rebuild-cron:0 5 0 * * *}")
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        LocalDate origin = LocalDate.now();
+        Snapshot fresh = new Snapshot(origin, new ConcurrentHashMap<>());
+        synchronized (updateLock) {
+            duringRebuild = new ArrayList<>();
+        }
+
+        int replayed;
+        try {
+            shardRouter.gather(shard -> {
+                jdbcTemplate.query(OCCUPIED_BOOKINGS, rs -> {
+                    mark(fresh, rs.getLong("room_id"),
+                            rs.getObject("start_date", LocalDate.class),
+                            rs.getObject("end_date", LocalDate.class),
+                            true);
+                }, origin, origin.plusDays(horizonDays));
+                return null;
+            });
+
+            synchronized (updateLock) {
+                // переходы, закоммиченные во время чтения, могли не попасть в результат запроса
+                duringRebuild.forEach(event -> apply(fresh, event));
+                replayed = duringRebuild.size();
+                snapshot = fresh;
+            }
+        } finally {
+            synchronized (updateLock) {
+                duringRebuild = null;
+            }
+        }
+        log.info("Availability calendar rebuilt: {} rooms, horizon {} days, {} transitions replayed, {} ms",
+                fresh.rooms().size(), horizonDays, replayed, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Применяется только после commit: незакоммиченное бронирование не должно занимать номер.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        if (event.startDate() == null || event.endDate() == null) {
+            return;
+        }
+        synchronized (updateLock) {
+            apply(snapshot, event);
+            if (duringRebuild != null) {
+                duringRebuild.add(event);
+            }
+        }
+    }
+
+    private void apply(Snapshot current, BookingStatusChangedEvent event) {
+        if (!event.isCreation() && occupies(event.previousStatus()) && event.previousRoomId() != null) {
+            mark(current, event.previousRoomId(), event.startDate(), event.endDate(), false);
+        }
+        if (occupies(event.status()) && event.roomId() != null) {
+            mark(current, event.roomId(), event.startDate(), event.endDate(), true);
+        } else if (event.roomId() != null) {
+            current.rooms().computeIfAbsent(event.roomId(), id -> new AtomicLongArray(words));
+        }
+    }
+
+    /**
+     * Номера, свободные все ночи из [from, to), to — дата выезда.
+     */
+    public List<Long> freeRooms(LocalDate from, LocalDate to) {
+        Snapshot current = snapshot;
+        int fromIndex = (int) ChronoUnit.DAYS.between(current.origin(), from);
+        int toIndex = (int) ChronoUnit.DAYS.between(current.origin(), to);
+        if (fromIndex < 0 || toIndex > horizonDays || fromIndex >= toIndex) {
+            throw new IllegalArgumentException("Range must be within [" + current.origin() + ", "
+                    + current.origin().plusDays(horizonDays) + "] and non-empty");
+        }
+
+        List<Long> free = new ArrayList<>();
+        current.rooms().forEach((roomId, bits) -> {
+            if (isClear(bits, fromIndex, toIndex)) {
+                free.add(roomId);
+            }
+        });
+        free.sort(null);
+        return free;
+    }
+
+    private void mark(Snapshot target, long roomId, LocalDate start, LocalDate end, boolean occupied) {
+        int fromIndex = (int) Math.max(0, ChronoUnit.DAYS.between(target.origin(), start));
+        int toIndex = (int) Math.min(horizonDays, ChronoUnit.DAYS.between(target.origin(), end));
+        AtomicLongArray bits = target.rooms().computeIfAbsent(roomId, id -> new AtomicLongArray(words));
+        if (fromIndex >= toIndex) {
+            return;
+        }
+
+        int firstWord = fromIndex >>> 6;
+        int lastWord = (toIndex - 1) >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            long mask = wordMask(word, firstWord, lastWord, fromIndex, toIndex);
+            if (occupied) {
+                bits.accumulateAndGet(word, mask, (current, m) -> current | m);
+            } else {
+                bits.accumulateAndGet(word, ~mask, (current, m) -> current & m);
+            }
+        }
+    }
+
+    private static boolean isClear(AtomicLongArray bits, int fromIndex, int toIndex) {
+        int firstWord = fromIndex >>> 6;
+        int lastWord = (toIndex - 1) >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            if ((bits.get(word) & wordMask(word, firstWord, lastWord, fromIndex, toIndex)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Маска битов слова word, попадающих в [fromIndex, toIndex).
+     */
+    private static long wordMask(int word, int firstWord, int lastWord, int fromIndex, int toIndex) {
+        long mask = -1L;
+        if (word == firstWord) {
+            mask &= -1L << (fromIndex & 63);
+        }
+        if (word == lastWord) {
+            mask &= -1L >>> (63 - ((toIndex - 1) & 63));
+        }
+        return mask;
+    }
+
+    private static boolean occupies(BookingStatus status) {
+        return status == BookingStatus.PENDING || status == BookingStatus.CONFIRMED;
+    }
+}
@@ -0,0 +1,272 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.SyntheticDataRequest;
+import com.daniil.bookingservice.dto.SyntheticDataResult;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingsBulkLoadedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Генератор синтетических данных для нагрузочных проверок индексов и пагинации.
+ * Пишет напрямую через JDBC batch insert несколькими воркерами, минуя JPA.
+ *
+ * <p>Доля строк — повторы недавних запросов с тем же correlation_id (повтор gateway). Они отправляются
+ * в БД отдельной пачкой с проверкой NOT EXISTS после пачки с исходными строками и новых бронирований
+ * не создают; в результат попадает число повторов, а вставленными считаются только реально добавленные строки.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyntheticDataGenerator {
+
+    private static final String INSERT_USER = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
+    private static final String INSERT_BOOKING = """
+            INSERT INTO bookings (user_id, room_id, start_date, end_date, status, created_at, correlation_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String REPLAY_BOOKING = """
+            INSERT INTO bookings (user_id, room_id, start_date, end_date, status, created_at, correlation_id)
+            SELECT ?, ?, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM bookings WHERE correlation_id = ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SyntheticDataResult generate(SyntheticDataRequest request) {
+        long started = System.currentTimeMillis();
+        String runId = Long.toString(started, 36);
+
+        int usersInserted = insertUsers(request, runId);
+        long[] userIds = jdbcTemplate.queryForList(
+                        "SELECT id FROM users WHERE username LIKE ?", Long.class, "synthetic_" + runId + "_%")
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        if (userIds.length == 0) {
+            throw new IllegalArgumentException("At least one user is required to generate bookings");
+        }
+
+        int workers = Math.max(1, request.getWorkers());
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                r -> new Thread(r, "synthetic-data-" + threadCounter.incrementAndGet()));
+
+        long inserted = 0;
+        long duplicates = 0;
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            int perWorker = request.getBookings() / workers;
+            for (int w = 0; w < workers; w++) {
+                int count = w == workers - 1 ? request.getBookings() - perWorker * (workers - 1) : perWorker;
+                long seed = request.getSeed() + w;
+                futures.add(pool.submit(() -> insertBookings(request, userIds, count, seed)));
+            }
+            for (Future<long[]> future : futures) {
+                long[] counters = future.get();
+                inserted += counters[0];
+                duplicates += counters[1];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic data generation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        eventPublisher.publishEvent(new BookingsBulkLoadedEvent("synthetic-data"));
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Generated {} users and {} bookings ({} duplicate requests) in {} ms",
+                usersInserted, inserted, duplicates, elapsed);
+        return new SyntheticDataResult(usersInserted, inserted, duplicates, elapsed);
+    }
+
+    private int insertUsers(SyntheticDataRequest request, String runId) {
+        List<Integer> indexes = new ArrayList<>(request.getUsers());
+        for (int i = 0; i < request.getUsers(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, indexes, request.getBatchSize(), (ps, i) -> {
+            ps.setString(1, "synthetic_" + runId + "_" + i);
+            ps.setString(2, "synthetic");
+            ps.setString(3, i % 20 == 0 ? "VIP" : "USER");
+        });
+        return indexes.size();
+    }
+
+    /**
+     * @return {вставлено строк, повторных запросов}
+     */
+    private long[] insertBookings(SyntheticDataRequest request, long[] userIds, int count, long seed) {
+        BookingRowFactory factory = new BookingRowFactory(request, userIds, LocalDate.now(), seed);
+        List<BookingRow> batch = new ArrayList<>(request.getBatchSize());
+        List<BookingRow> replays = new ArrayList<>();
+        long inserted = 0;
+        long duplicates = 0;
+
+        for (int i = 0; i < count; i++) {
+            BookingRow row = factory.next();
+            if (row.replay()) {
+                replays.add(row);
+                duplicates++;
+            } else {
+                batch.add(row);
+            }
+            if (batch.size() + replays.size() == request.getBatchSize()) {
+                inserted += flush(batch, replays);
+            }
+        }
+        inserted += flush(batch, replays);
+        return new long[]{inserted, duplicates};
+    }
+
+    /**
+     * Сначала новые строки, затем повторы: исходная строка повтора к этому моменту уже в БД.
+     */
+    private long flush(List<BookingRow> batch, List<BookingRow> replays) {
+        long inserted = 0;
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BOOKING, batch, batch.size(), (ps, row) -> bind(ps, row));
+            inserted += batch.size();
+            batch.clear();
+        }
+        if (!replays.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(REPLAY_BOOKING, replays, replays.size(), (ps, row) -> {
+                bind(ps, row);
+                ps.setString(8, row.correlationId());
+            });
+            long replayed = Arrays.stream(counts).flatMapToInt(Arrays::stream).filter(c -> c > 0).count();
+            if (replayed > 0) {
+                log.warn("{} replayed requests created new bookings", replayed);
+            }
+            inserted += replayed;
+            replays.clear();
+        }
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement ps, BookingRow row) throws SQLException {
+        ps.setLong(1, row.userId());
+        if (row.roomId() != null) {
+            ps.setLong(2, row.roomId());
+        } else {
+            ps.setNull(2, Types.BIGINT);
+        }
+        ps.setObject(3, row.startDate());
+        ps.setObject(4, row.endDate());
+        ps.setString(5, row.status().name());
+        ps.setObject(6, row.createdAt());
+        ps.setString(7, row.correlationId());
+    }
+
+    /**
+     * replay — повтор уже выданного запроса с тем же correlationId
+     */
+    record BookingRow(long userId, Long roomId, LocalDate startDate, LocalDate endDate,
+                      BookingStatus status, LocalDateTime createdAt, String correlationId, boolean replay) {
+
+        BookingRow asReplay() {
+            return new BookingRow(userId, roomId, startDate, endDate, status, createdAt, correlationId, true);
+        }
+    }
+
+    /**
+     * Распределения: статусы по заданным долям, длительность проживания ~ геометрическое (в среднем ~3 ночи),
+     * популярность номеров ~ Zipf (номер с меньшим рангом бронируют чаще), заезд равномерно в [-daysBack, daysForward].
+     */
+    static final class BookingRowFactory {
+        private static final int MAX_NIGHTS = 21;
+        private static final int MAX_LEAD_DAYS = 120;
+        /** Повторяется один из последних выданных запросов, как при retry gateway */
+        private static final int RECENT_ROWS = 256;
+
+        private final SyntheticDataRequest request;
+        private final long[] userIds;
+        private final LocalDate today;
+        private final LocalDateTime now;
+        private final SplittableRandom random;
+        private final BookingRow[] recent = new BookingRow[RECENT_ROWS];
+        private int issued;
+
+        BookingRowFactory(SyntheticDataRequest request, long[] userIds, LocalDate today, long seed) {
+            this.request = request;
+            this.userIds = userIds;
+            this.today = today;
+            this.now = LocalDateTime.now();
+            this.random = new SplittableRandom(seed);
+        }
+
+        /**
+         * @return новая строка или повтор (replay) одной из недавних
+         */
+        BookingRow next() {
+            if (issued > 0 && random.nextDouble() < request.getDuplicateRate()) {
+                return recent[random.nextInt(Math.min(issued, RECENT_ROWS))].asReplay();
+            }
+
+            BookingStatus status = nextStatus();
+            Long roomId = status == BookingStatus.CANCELLED && random.nextDouble() < request.getFailedAllocationRate()
+                    ? null
+                    : 100L + (long) Math.pow(request.getRooms(), random.nextDouble());
+
+            LocalDate start = today.plusDays(random.nextInt(-request.getDaysBack(), request.getDaysForward() + 1));
+            int nights = 1;
+            while (nights < MAX_NIGHTS && random.nextDouble() > 0.35) {
+                nights++;
+            }
+
+            LocalDateTime createdAt = start.minusDays(random.nextInt(MAX_LEAD_DAYS))
+                    .atTime(LocalTime.ofSecondOfDay(random.nextInt(86_400)));
+            if (createdAt.isAfter(now)) {
+                createdAt = now.minusMinutes(random.nextInt(1, 1_440));
+            }
+
+            BookingRow row = new BookingRow(
+                    userIds[random.nextInt(userIds.length)],
+                    roomId,
+                    start,
+                    start.plusDays(nights),
+                    status,
+                    createdAt,
+                    new UUID(random.nextLong(), random.nextLong()).toString(),
+                    false);
+            recent[issued % RECENT_ROWS] = row;
+            issued++;
+            return row;
+        }
+
+        private BookingStatus nextStatus() {
+            double u = random.nextDouble();
+            if (u < request.getConfirmedRate()) {
+                return BookingStatus.CONFIRMED;
+            }
+            if (u < request.getConfirmedRate() + request.getCancelledRate()) {
+                return BookingStatus.CANCELLED;
+            }
+            return BookingStatus.PENDING;
+        }
+    }
+}
@@ -22,6 +22,18 @@ public class TestDataService {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
 
+    /**
+     * Все наборы тестовых данных в одной транзакции: один commit вместо пяти.
+     */
+    @Transactional
+    public void createAllTestData() {
+        createTestUsers();
+        createTestBookings();
+        createIdempotencyTestData();
+        createHistoricalData();
+        createEdgeCaseData();
+    }
+
     @Transactional
     public void createTestUsers() {
         if (userRepository.count() > 0) {
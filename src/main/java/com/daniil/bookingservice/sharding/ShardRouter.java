@@ -0,0 +1,160 @@
+package com.daniil.bookingservice.sharding;
+
+import com.daniil.bookingservice.replica.ReadYourWrites;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Выбор шарда и контекст текущего шарда потока, по которому ShardRoutingDataSource выдаёт соединения.
+ *
+ * <p>Ключ шардирования — userId: бронирование создаётся на шарде userId % N, там же ищутся повторы по correlationId.
+ * Последовательность id на шарде k выдаёт только значения с (id - 1) % N == k, поэтому шард бронирования
+ * определяется по id без обхода всех шардов.
+ *
+ * <p>Контекст нужно выставлять до начала транзакции: соединение берётся при её открытии.
+ * Без шардирования шард один, и все методы работают на вызывающем потоке.
+ */
+@Component
+public class ShardRouter {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final ExecutorService gatherExecutor;
+
+    public ShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? Math.max(1, properties.getShards().size()) : 1;
+        if (shardCount > 1) {
+            AtomicInteger threadCounter = new AtomicInteger();
+            this.gatherExecutor = Executors.newFixedThreadPool(shardCount * 2, r -> {
+                Thread thread = new Thread(r, "shard-gather-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.gatherExecutor = null;
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Шард, выставленный в текущем потоке; null — шард по умолчанию (0).
+     */
+    public static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public int shardForUser(Long userId) {
+        return userId == null ? 0 : (int) Math.floorMod(userId, (long) shardCount);
+    }
+
+    public int shardForBookingId(long bookingId) {
+        return (int) Math.floorMod(bookingId - 1, (long) shardCount);
+    }
+
+    public <T> T callOn(int shard, Supplier<T> action) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Unknown shard " + shard + " of " + shardCount);
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public void runOn(int shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Выполняет perShard на всех шардах параллельно; результаты в порядке номеров шардов.
+     * Каждый шард обрабатывается в своём потоке вне транзакции вызывающего; закрепление чтений
+     * за основной БД (ReadYourWrites) переносится в эти потоки.
+     */
+    public <T> List<T> gather(IntFunction<T> perShard) {
+        if (gatherExecutor == null) {
+            return Collections.singletonList(callOn(0, () -> perShard.apply(0)));
+        }
+
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        boolean primary = ReadYourWrites.primaryRequired();
+        List<Future<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(gatherExecutor.submit(() -> {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                try {
+                    Supplier<T> onShard = () -> callOn(target, () -> perShard.apply(target));
+                    return primary ? ReadYourWrites.onPrimary(onShard) : onShard.get();
+                } finally {
+                    MDC.clear();
+                }
+            }));
+        }
+
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scatter-gather interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Scatter-gather failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Последовательно на каждом шарде в вызывающем потоке — для фоновых задач с собственными транзакциями.
+     */
+    public <T> List<T> eachShard(IntFunction<T> perShard) {
+        List<T> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            results.add(callOn(target, () -> perShard.apply(target)));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (gatherExecutor != null) {
+            gatherExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.daniil.bookingservice.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource, выдающий соединения шарда из ShardRouter.currentShard(); без контекста — шард 0,
+ * где живут общие таблицы (users, refresh_tokens).
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final List<HikariDataSource> pools;
+
+    /**
+     * @param shards DataSource шарда по номеру (пул или пара основная БД/реплика)
+     * @param pools  все пулы шардов и реплик, закрываются вместе с этим DataSource
+     */
+    public ShardRoutingDataSource(List<? extends DataSource> shards, List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
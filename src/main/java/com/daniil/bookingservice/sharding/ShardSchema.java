@@ -0,0 +1,48 @@
+package com.daniil.bookingservice.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Подготовка шарда при старте: миграции Flyway и последовательность id бронирований,
+ * выдающая на шарде shard из shardCount только значения с (id - 1) % shardCount == shard.
+ */
+@Slf4j
+public final class ShardSchema {
+
+    private static final String MAX_BOOKING_ID = """
+            SELECT GREATEST(
+                COALESCE((SELECT MAX(id) FROM bookings), 0),
+                COALESCE((SELECT MAX(id) FROM bookings_archive), 0))
+            """;
+
+    private ShardSchema() {
+    }
+
+    public static void prepare(DataSource dataSource, String locations, int shard, int shardCount) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations)
+                .load()
+                .migrate();
+
+        // архивные id тоже учитываются: после переноса в архив они не должны выдаваться повторно
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long maxId = jdbcTemplate.queryForObject(MAX_BOOKING_ID, Long.class);
+        long next = nextId(maxId != null ? maxId : 0, shard, shardCount);
+        jdbcTemplate.execute("ALTER TABLE bookings ALTER COLUMN id SET INCREMENT BY " + shardCount);
+        jdbcTemplate.execute("ALTER TABLE bookings ALTER COLUMN id RESTART WITH " + next);
+        log.info("Shard {}/{} ready, next booking id {}", shard, shardCount, next);
+    }
+
+    /**
+     * Наименьший id больше maxId, принадлежащий шарду.
+     */
+    static long nextId(long maxId, int shard, int shardCount) {
+        long next = maxId + 1;
+        return next + Math.floorMod(shard - (next - 1), (long) shardCount);
+    }
+}
@@ -0,0 +1,35 @@
+package com.daniil.bookingservice.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * booking.sharding.*: бронирования распределяются по нескольким БД по userId.
+ * Порядок шардов значим — номер шарда зашит в id бронирования, поэтому список можно только дополнять
+ * вместе с переносом данных.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "booking.sharding")
+public class ShardingProperties {
+
+    /** false — одна БД из spring.datasource.*, shards игнорируются */
+    private boolean enabled = false;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+
+        /** Реплика шарда для readOnly-транзакций (те же username/password); null — чтения с самого шарда */
+        private String replicaUrl;
+    }
+}
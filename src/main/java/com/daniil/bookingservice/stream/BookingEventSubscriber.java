@@ -0,0 +1,171 @@
+package com.daniil.bookingservice.stream;
+
+import com.daniil.bookingservice.dto.BookingStatusUpdate;
+import com.daniil.bookingservice.entity.BookingStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Подписчик потока: одно бронирование (bookingId) или все бронирования пользователя (userId).
+ *
+ * <p>Недоставленные события лежат в ограниченной очереди, схлопнутой по bookingId: новое событие заменяет
+ * ожидающее для того же бронирования. Очередь разбирает не больше одного потока диспетчера за раз.
+ */
+@Slf4j
+class BookingEventSubscriber {
+
+    private final SseEmitter emitter;
+    private final Long bookingId;
+    private final Long userId;
+    private final int maxPending;
+
+    private final LinkedHashMap<Long, BookingStatusUpdate> pending = new LinkedHashMap<>();
+    private int dropped;
+    private boolean heartbeatDue;
+    private boolean liveSeen;
+    private boolean scheduled;
+    private boolean closed;
+    private Runnable onClose = () -> { };
+
+    private volatile long lastSentNanos = System.nanoTime();
+
+    BookingEventSubscriber(SseEmitter emitter, Long bookingId, Long userId, int maxPending) {
+        this.emitter = emitter;
+        this.bookingId = bookingId;
+        this.userId = userId;
+        this.maxPending = maxPending;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    Long bookingId() {
+        return bookingId;
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    synchronized void onClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    /**
+     * Ставит событие в очередь. Снимок состояния при подписке (live = false) не кладётся поверх
+     * уже пришедшего события: он может быть старее.
+     *
+     * @return true — очередь нужно отдать диспетчеру
+     */
+    synchronized boolean offer(BookingStatusUpdate update, boolean live) {
+        if (closed || (!live && liveSeen)) {
+            return false;
+        }
+        liveSeen |= live;
+        BookingStatusUpdate previous = pending.get(update.bookingId());
+        if (previous != null) {
+            // схлопывание: клиент видит переход от последнего доставленного статуса к текущему
+            update = new BookingStatusUpdate(update.bookingId(), update.userId(), update.roomId(),
+                    previous.previousStatus(), update.status());
+        }
+        pending.put(update.bookingId(), update);
+        if (pending.size() > maxPending) {
+            Iterator<Long> eldest = pending.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            dropped++;
+        }
+        return schedule();
+    }
+
+    /**
+     * Heartbeat только простаивающему подписчику: любое событие и так держит соединение живым.
+     */
+    synchronized boolean requestHeartbeat(long nowNanos, long idleNanos) {
+        if (closed || !pending.isEmpty() || nowNanos - lastSentNanos < idleNanos) {
+            return false;
+        }
+        heartbeatDue = true;
+        return schedule();
+    }
+
+    private boolean schedule() {
+        if (scheduled) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+
+    /**
+     * Отправляет всё накопленное; выполняется в потоке диспетчера.
+     */
+    void drain() {
+        while (true) {
+            List<BookingStatusUpdate> batch;
+            int droppedNow;
+            boolean heartbeat;
+            synchronized (this) {
+                if (closed || (pending.isEmpty() && dropped == 0 && !heartbeatDue)) {
+                    scheduled = false;
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                droppedNow = dropped;
+                dropped = 0;
+                heartbeat = heartbeatDue;
+                heartbeatDue = false;
+            }
+
+            try {
+                if (droppedNow > 0) {
+                    // клиент не успевал читать: часть переходов потеряна, состояние перечитывается через GET
+                    emitter.send(SseEmitter.event().name("resync")
+                            .data(Map.of("dropped", droppedNow), MediaType.APPLICATION_JSON));
+                }
+                for (BookingStatusUpdate update : batch) {
+                    emitter.send(SseEmitter.event().name("status").data(update, MediaType.APPLICATION_JSON));
+                }
+                if (heartbeat && batch.isEmpty() && droppedNow == 0) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                lastSentNanos = System.nanoTime();
+            } catch (IOException | IllegalStateException e) {
+                // клиент отключился; запрос завершит контейнер
+                log.debug("SSE subscriber gone: {}", e.getMessage());
+                close();
+                return;
+            }
+
+            if (bookingId != null && batch.stream().anyMatch(u -> u.status() == BookingStatus.CANCELLED)) {
+                // отмена окончательна — поток одного бронирования на этом заканчивается
+                close();
+                emitter.complete();
+                return;
+            }
+        }
+    }
+
+    void close() {
+        Runnable hook;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+            hook = onClose;
+        }
+        hook.run();
+    }
+}
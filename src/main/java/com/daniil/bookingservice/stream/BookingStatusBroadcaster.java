@@ -0,0 +1,219 @@
+package com.daniil.bookingservice.stream;
+
+import com.daniil.bookingservice.dto.BookingStatusUpdate;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Рассылка смен статуса бронирований подписчикам text/event-stream.
+ *
+ * <p>Слушатель BookingStatusChangedEvent срабатывает после commit и в сокеты не пишет: событие кладётся
+ * в очередь подписчика, а отправку выполняет пул sse-dispatch, поэтому медленный клиент не задерживает
+ * поток, закоммитивший транзакцию. На подписчика в пуле не больше одной задачи. При переполнении очереди
+ * старейшие события выбрасываются, и клиент получает resync.
+ *
+ * <p>Простаивающее соединение — асинхронный запрос без потока и пустая очередь; раз в heartbeat-interval
+ * ему уходит комментарий, по ошибке записи находятся отключившиеся клиенты. Рассылка в пределах
+ * экземпляра: переходы, закоммиченные на другом экземпляре сервиса, сюда не попадают.
+ */
+@Component
+public class BookingStatusBroadcaster {
+
+    private final ConcurrentHashMap<Long, Set<BookingEventSubscriber>> byBooking = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<BookingEventSubscriber>> byUser = new ConcurrentHashMap<>();
+    private final Set<BookingEventSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final int maxPending;
+    private final long heartbeatNanos;
+    private final Executor dispatcher;
+
+    @Autowired
+    public BookingStatusBroadcaster(@Value("${booking.events.timeout:30m}") Duration timeout,
+                                    @Value("${booking.events.max-subscribers:10000}") int maxSubscribers,
+                                    @Value("${booking.events.max-pending:64}") int maxPending,
+                                    @Value("${booking.events.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+                                    @Value("${booking.events.dispatch-threads:4}") int dispatchThreads) {
+        this(timeout, maxSubscribers, maxPending, heartbeatIntervalMs, newDispatcher(dispatchThreads));
+    }
+
+    BookingStatusBroadcaster(Duration timeout, int maxSubscribers, int maxPending, long heartbeatIntervalMs,
+                             Executor dispatcher) {
+        this.timeoutMs = timeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.maxPending = maxPending;
+        this.heartbeatNanos = Duration.ofMillis(heartbeatIntervalMs).toNanos();
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Поток переходов одного бронирования. Первым событием идёт текущее состояние (current читается после
+     * регистрации, поэтому переход между чтением и подпиской не теряется).
+     *
+     * @return пусто, если бронирования нет
+     */
+    public Optional<SseEmitter> subscribeToBooking(Long bookingId, Supplier<Optional<BookingStatusUpdate>> current) {
+        BookingEventSubscriber subscriber = register(new BookingEventSubscriber(
+                new SseEmitter(timeoutMs), bookingId, null, maxPending));
+        Optional<BookingStatusUpdate> snapshot;
+        try {
+            snapshot = current.get();
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        if (snapshot.isEmpty()) {
+            subscriber.close();
+            return Optional.empty();
+        }
+        deliver(subscriber, snapshot.get(), false);
+        return Optional.of(subscriber.emitter());
+    }
+
+    /**
+     * Поток переходов всех бронирований пользователя, начиная с момента подписки.
+     */
+    public SseEmitter subscribeToUser(Long userId) {
+        return register(new BookingEventSubscriber(new SseEmitter(timeoutMs), null, userId, maxPending)).emitter();
+    }
+
+    /**
+     * Только после commit: откатившиеся переходы клиентам не показываются.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        if (event.bookingId() == null || subscribers.isEmpty()) {
+            return;
+        }
+        BookingStatusUpdate update = BookingStatusUpdate.from(event);
+        deliverAll(byBooking.get(event.bookingId()), update);
+        if (event.userId() != null) {
+            deliverAll(byUser.get(event.userId()), update);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (BookingEventSubscriber subscriber : subscribers) {
+            if (subscriber.requestHeartbeat(now, heartbeatNanos)) {
+                dispatch(subscriber);
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (BookingEventSubscriber subscriber : List.copyOf(subscribers)) {
+            subscriber.close();
+            subscriber.emitter().complete();
+        }
+        if (dispatcher instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    BookingEventSubscriber register(BookingEventSubscriber subscriber) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event stream subscribers");
+        }
+        subscriber.onClose(() -> unregister(subscriber));
+        subscribers.add(subscriber);
+        if (subscriber.bookingId() != null) {
+            add(byBooking, subscriber.bookingId(), subscriber);
+        } else {
+            add(byUser, subscriber.userId(), subscriber);
+        }
+
+        SseEmitter emitter = subscriber.emitter();
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        // по таймауту поток закрывается штатно, EventSource переподключится сам
+        emitter.onTimeout(emitter::complete);
+        return subscriber;
+    }
+
+    private void unregister(BookingEventSubscriber subscriber) {
+        subscribers.remove(subscriber);
+        if (subscriber.bookingId() != null) {
+            remove(byBooking, subscriber.bookingId(), subscriber);
+        } else {
+            remove(byUser, subscriber.userId(), subscriber);
+        }
+    }
+
+    private void deliverAll(Set<BookingEventSubscriber> targets, BookingStatusUpdate update) {
+        if (targets == null) {
+            return;
+        }
+        for (BookingEventSubscriber subscriber : targets) {
+            deliver(subscriber, update, true);
+        }
+    }
+
+    private void deliver(BookingEventSubscriber subscriber, BookingStatusUpdate update, boolean live) {
+        if (subscriber.offer(update, live)) {
+            dispatch(subscriber);
+        }
+    }
+
+    private void dispatch(BookingEventSubscriber subscriber) {
+        try {
+            dispatcher.execute(subscriber::drain);
+        } catch (RejectedExecutionException e) {
+            // приложение останавливается
+            subscriber.close();
+        }
+    }
+
+    private static void add(ConcurrentHashMap<Long, Set<BookingEventSubscriber>> index, Long key,
+                            BookingEventSubscriber subscriber) {
+        index.compute(key, (k, set) -> {
+            Set<BookingEventSubscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+    }
+
+    private static void remove(ConcurrentHashMap<Long, Set<BookingEventSubscriber>> index, Long key,
+                               BookingEventSubscriber subscriber) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static ExecutorService newDispatcher(int threads) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "sse-dispatch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
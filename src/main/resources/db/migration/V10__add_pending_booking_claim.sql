@@ -0,0 +1,4 @@
+-- Аренда записи очереди degraded mode: экземпляр сервиса, взявший запись в разбор, и срок аренды.
+-- Пока аренда не истекла, запись не выбирают другие экземпляры; после падения разборщика её подберёт следующий.
+ALTER TABLE pending_booking_requests ADD COLUMN claimed_by VARCHAR(255);
+ALTER TABLE pending_booking_requests ADD COLUMN claimed_until TIMESTAMP(6);
@@ -0,0 +1,10 @@
+-- Отозванные access-токены (POST /api/user/logout) до истечения их exp, рядом с refresh_tokens.
+-- Каждый экземпляр сервиса загружает таблицу при старте и подтягивает новые записи по revoked_at.
+CREATE TABLE revoked_tokens (
+    jti        VARCHAR(64)  NOT NULL PRIMARY KEY,
+    expires_at TIMESTAMP(6) NOT NULL,
+    revoked_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX ix_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX ix_revoked_tokens_expires ON revoked_tokens (expires_at);
@@ -0,0 +1,19 @@
+-- Базовая схема сервиса бронирований (ранее генерировалась hibernate ddl-auto)
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255),
+    role     VARCHAR(255)
+);
+
+CREATE TABLE bookings (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id        BIGINT,
+    room_id        BIGINT,
+    start_date     DATE,
+    end_date       DATE,
+    status         VARCHAR(20),
+    created_at     TIMESTAMP(6),
+    correlation_id VARCHAR(255)
+);
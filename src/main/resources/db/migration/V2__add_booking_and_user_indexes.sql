@@ -0,0 +1,14 @@
+-- Идемпотентность: BookingRepository.findByCorrelationId
+CREATE UNIQUE INDEX ux_bookings_correlation_id ON bookings (correlation_id);
+
+-- Аутентификация: UserRepository.findByUsername
+CREATE UNIQUE INDEX ux_users_username ON users (username);
+
+-- История бронирований пользователя
+CREATE INDEX ix_bookings_user_created ON bookings (user_id, created_at);
+
+-- Пересечение дат по номеру
+CREATE INDEX ix_bookings_room_dates ON bookings (room_id, start_date, end_date);
+
+-- Выборки по статусу (pending cleanup, отчёты по отменам)
+CREATE INDEX ix_bookings_status_created ON bookings (status, created_at);
@@ -0,0 +1,3 @@
+-- Покрывающий индекс для агрегатов аналитики: фильтр по start_date,
+-- группировка по status/room_id, end_date нужен для подсчёта ночей — таблица не читается.
+CREATE INDEX ix_bookings_start_status_room ON bookings (start_date, status, room_id, end_date);
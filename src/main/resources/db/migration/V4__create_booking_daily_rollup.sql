@@ -0,0 +1,10 @@
+-- Дневные счётчики по дате заезда, номеру и статусу; поддерживаются BookingRollupService.
+-- room_id = 0 — номер не был выделен (в bookings это NULL).
+CREATE TABLE booking_daily_rollup (
+    start_date DATE        NOT NULL,
+    room_id    BIGINT      NOT NULL,
+    status     VARCHAR(20) NOT NULL,
+    bookings   BIGINT      NOT NULL,
+    nights     BIGINT      NOT NULL,
+    PRIMARY KEY (start_date, room_id, status)
+);
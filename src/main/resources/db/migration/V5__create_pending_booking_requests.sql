@@ -0,0 +1,10 @@
+-- Очередь бронирований, принятых при открытом hotelServiceCB (degraded mode).
+-- Разбирается PendingBookingDrainer после закрытия circuit breaker.
+CREATE TABLE pending_booking_requests (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id     BIGINT       NOT NULL,
+    correlation_id VARCHAR(255) NOT NULL,
+    enqueued_at    TIMESTAMP(6) NOT NULL,
+    attempts       INT          NOT NULL DEFAULT 0,
+    CONSTRAINT ux_pending_booking_requests_booking UNIQUE (booking_id)
+);
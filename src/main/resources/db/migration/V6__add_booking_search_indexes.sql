@@ -0,0 +1,5 @@
+-- Поиск бронирований (BookingSearchRepository): первая фаза выбирает только id по фильтру
+-- в порядке id DESC, поэтому индексы заканчиваются на id (keyset без сортировки и без чтения таблицы).
+-- Фильтр по номеру и датам обслуживает ix_bookings_room_dates.
+CREATE INDEX ix_bookings_status_id ON bookings (status, id);
+CREATE INDEX ix_bookings_user_status_id ON bookings (user_id, status, id);
@@ -0,0 +1,17 @@
+-- Refresh-токены: хранится только SHA-256 от токена.
+-- family_id объединяет цепочку ротаций одного входа; повторное использование
+-- уже обменянного токена отзывает всю семью.
+CREATE TABLE refresh_tokens (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash VARCHAR(64)  NOT NULL,
+    family_id  VARCHAR(36)  NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    used_at    TIMESTAMP(6),
+    revoked    BOOLEAN      NOT NULL DEFAULT FALSE,
+    CONSTRAINT ux_refresh_tokens_hash UNIQUE (token_hash)
+);
+
+CREATE INDEX ix_refresh_tokens_family ON refresh_tokens (family_id);
+CREATE INDEX ix_refresh_tokens_user ON refresh_tokens (user_id);
+CREATE INDEX ix_refresh_tokens_expires ON refresh_tokens (expires_at);
@@ -0,0 +1,13 @@
+-- Холодный архив завершённых бронирований (BookingArchiver). id переносится из bookings как есть,
+-- поэтому GET /api/bookings/{id} находит бронирование и после архивации.
+CREATE TABLE bookings_archive (
+    id             BIGINT PRIMARY KEY,
+    user_id        BIGINT,
+    room_id        BIGINT,
+    start_date     DATE,
+    end_date       DATE,
+    status         VARCHAR(20),
+    created_at     TIMESTAMP(6),
+    correlation_id VARCHAR(255),
+    archived_at    TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Записи очереди degraded mode, исчерпавшие booking.degraded-mode.max-attempts: бронирование отменено,
+-- запись остаётся для разбора и больше не выбирается PendingBookingDrainer.
+ALTER TABLE pending_booking_requests ADD COLUMN dead_lettered_at TIMESTAMP(6);
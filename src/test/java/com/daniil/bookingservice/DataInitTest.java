@@ -0,0 +1,90 @@
+package com.daniil.bookingservice;
+
+import com.daniil.bookingservice.event.BookingsBulkLoadedEvent;
+import com.daniil.bookingservice.service.TestDataService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataInitTest {
+
+    @Mock
+    private TestDataService testDataService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DataInit dataInit;
+
+    @Test
+    void run_SyncMode_SeedsBeforeReturning() {
+        ReflectionTestUtils.setField(dataInit, "seedMode", "sync");
+        AtomicReference<Thread> seedThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            seedThread.set(Thread.currentThread());
+            return null;
+        }).when(testDataService).createAllTestData();
+
+        dataInit.run();
+
+        assertSame(Thread.currentThread(), seedThread.get());
+        verify(eventPublisher).publishEvent(any(BookingsBulkLoadedEvent.class));
+    }
+
+    @Test
+    void run_AsyncMode_ReturnsWhileSeedingInBackground() throws InterruptedException {
+        ReflectionTestUtils.setField(dataInit, "seedMode", "async");
+        CountDownLatch seeding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> seedThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            seedThread.set(Thread.currentThread());
+            seeding.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(testDataService).createAllTestData();
+
+        // run не ждёт заполнения: иначе тест повис бы на release
+        dataInit.run();
+        assertTrue(seeding.await(5, TimeUnit.SECONDS));
+        verify(eventPublisher, never()).publishEvent(any());
+        release.countDown();
+
+        verify(eventPublisher, timeout(5000)).publishEvent(any(BookingsBulkLoadedEvent.class));
+        assertNotSame(Thread.currentThread(), seedThread.get());
+        assertTrue(seedThread.get().getName().startsWith("test-data-"));
+    }
+
+    @Test
+    void run_OffMode_SkipsSeeding() {
+        ReflectionTestUtils.setField(dataInit, "seedMode", "off");
+
+        dataInit.run();
+
+        verifyNoInteractions(testDataService, eventPublisher);
+    }
+
+    @Test
+    void run_UnknownMode_FallsBackToSync() {
+        ReflectionTestUtils.setField(dataInit, "seedMode", "lazy");
+
+        dataInit.run();
+
+        verify(testDataService).createAllTestData();
+        verify(eventPublisher).publishEvent(any(BookingsBulkLoadedEvent.class));
+    }
+}
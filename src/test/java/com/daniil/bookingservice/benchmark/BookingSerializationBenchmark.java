@@ -0,0 +1,92 @@
+package com.daniil.bookingservice.benchmark;
+
+import com.daniil.bookingservice.dto.BookingResponse;
+import com.daniil.bookingservice.dto.BookingResponseSerializer;
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответа на бронирование: сущность через рефлексию, record через рефлексию
+ * и record через BookingResponseSerializer. Профайлер gc показывает аллокации на операцию (gc.alloc.rate.norm).
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     "-Dexec.args=-cp %classpath com.daniil.bookingservice.benchmark.BookingSerializationBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingSerializationBenchmark {
+
+    private Booking booking;
+    private ObjectWriter entityWriter;
+    private ObjectWriter recordWriter;
+    private ObjectWriter serializerWriter;
+
+    @Setup
+    public void setUp() {
+        booking = Booking.builder()
+                .id(42L)
+                .userId(7L)
+                .roomId(101L)
+                .startDate(LocalDate.now().plusDays(10))
+                .endDate(LocalDate.now().plusDays(13))
+                .status(BookingStatus.CONFIRMED)
+                .createdAt(LocalDateTime.now())
+                .correlationId("3f2b8c1e-4d5a-4b7e-9c0d-1a2b3c4d5e6f")
+                .build();
+
+        ObjectMapper reflective = mapper();
+        entityWriter = reflective.writerFor(Booking.class);
+        recordWriter = reflective.writerFor(BookingResponse.class);
+        serializerWriter = mapper()
+                .registerModule(new SimpleModule().addSerializer(BookingResponse.class, new BookingResponseSerializer()))
+                .writerFor(BookingResponse.class);
+    }
+
+    @Benchmark
+    public byte[] entityReflective() throws Exception {
+        return entityWriter.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] recordReflective() throws Exception {
+        return recordWriter.writeValueAsBytes(BookingResponse.from(booking));
+    }
+
+    @Benchmark
+    public byte[] recordPrecomputed() throws Exception {
+        return serializerWriter.writeValueAsBytes(BookingResponse.from(booking));
+    }
+
+    private static ObjectMapper mapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
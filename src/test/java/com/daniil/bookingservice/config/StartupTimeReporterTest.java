@@ -0,0 +1,56 @@
+package com.daniil.bookingservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTimeReporterTest {
+
+    private static final String METRIC = "booking.startup.first.booking.ms";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StartupTimeReporter reporter = new StartupTimeReporter(meterRegistry);
+
+    @Test
+    void onRequestHandled_FirstSuccessfulBooking_PublishesTimeSinceJvmStart() {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        ServletRequestHandledEvent event = event("POST", "/api/bookings", 200);
+
+        reporter.onRequestHandled(event);
+
+        Gauge gauge = meterRegistry.find(METRIC).gauge();
+        assertNotNull(gauge);
+        assertEquals(event.getTimestamp() - jvmStart, gauge.value());
+    }
+
+    @Test
+    void onRequestHandled_OtherRequests_AreIgnored() {
+        reporter.onRequestHandled(event("GET", "/api/bookings", 200));
+        reporter.onRequestHandled(event("POST", "/api/bookings", 409));
+        reporter.onRequestHandled(event("POST", "/api/user/auth", 200));
+
+        assertNull(meterRegistry.find(METRIC).gauge());
+    }
+
+    @Test
+    void onRequestHandled_LaterBookings_KeepFirstValue() throws InterruptedException {
+        reporter.onRequestHandled(event("POST", "/api/bookings", 200));
+        double first = meterRegistry.get(METRIC).gauge().value();
+        Thread.sleep(5);
+
+        reporter.onRequestHandled(event("POST", "/api/bookings", 200));
+
+        assertEquals(first, meterRegistry.get(METRIC).gauge().value());
+        assertEquals(1, meterRegistry.find(METRIC).gauges().size());
+    }
+
+    private ServletRequestHandledEvent event(String method, String url, int status) {
+        return new ServletRequestHandledEvent(this, url, "127.0.0.1", method, "dispatcherServlet",
+                null, null, 10, null, status);
+    }
+}
@@ -1,6 +1,9 @@
 package com.daniil.bookingservice.controller;
 
 import com.daniil.bookingservice.dto.UserDto;
+import com.daniil.bookingservice.security.ClientIpResolver;
+import com.daniil.bookingservice.security.RateLimiter;
+import com.daniil.bookingservice.security.TokenRevocationList;
 import com.daniil.bookingservice.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -35,6 +38,15 @@ class AuthControllerTest {
     @MockBean
     private AuthService authService;
 
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockBean
+    private ClientIpResolver clientIpResolver;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -3,10 +3,18 @@ package com.daniil.bookingservice.controller;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.daniil.bookingservice.dto.BookingRequest;
+import com.daniil.bookingservice.dto.BookingStatusUpdate;
 import com.daniil.bookingservice.entity.Booking;
 import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.security.JwtTokenProvider;
+import com.daniil.bookingservice.service.BookingRequestCoalescer;
 import com.daniil.bookingservice.service.BookingService;
+import com.daniil.bookingservice.service.RoomAvailabilityCalendar;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import com.daniil.bookingservice.stream.BookingStatusBroadcaster;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,14 +22,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.*;
@@ -31,6 +47,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(value = BookingController.class, excludeAutoConfiguration = {
         SecurityAutoConfiguration.class
 })
+@Import({BookingRequestCoalescer.class, ShardRouter.class, ShardingProperties.class})
 class BookingControllerTest {
 
     @Autowired
@@ -39,16 +56,25 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private RoomAvailabilityCalendar availabilityCalendar;
+
+    @MockBean
+    private BookingStatusBroadcaster statusBroadcaster;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private BookingRequest bookingRequest;
     private Booking createdBooking;
     private final Long testBookingId = 10L;
-    private final Long hardcodedUserId = 1L;
+    private final Long tokenUserId = 7L;
 
     @BeforeEach
     void setUp() {
+        authenticate(Jwt.withTokenValue("token").header("alg", "HS256").subject("user")
+                .claim(JwtTokenProvider.USER_ID_CLAIM, tokenUserId).build());
+
         // Initialize common objects for tests
         bookingRequest = new BookingRequest();
         bookingRequest.setStartDate(LocalDate.now().plusDays(1));
@@ -58,7 +84,7 @@ class BookingControllerTest {
         // Initialize a sample created booking object
         createdBooking = Booking.builder()
                 .id(testBookingId)
-                .userId(hardcodedUserId) // Matches the controller's hardcoded value
+                .userId(tokenUserId) // Matches the uid claim of the access token
                 .roomId(101L)
                 .startDate(bookingRequest.getStartDate())
                 .endDate(bookingRequest.getEndDate())
@@ -68,6 +94,15 @@ class BookingControllerTest {
                 .build();
     }
 
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(Jwt jwt) {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
     // =====================================================
     //           ТЕСТЫ ДЛЯ ЭНДПОИНТА POST /api/bookings
     // =====================================================
@@ -77,7 +112,7 @@ class BookingControllerTest {
     void createBooking_Success_ShouldReturnOkAndBooking() throws Exception {
         // Arrange
         // Mock the service to return the created booking when called
-        given(bookingService.createBooking(eq(bookingRequest), eq(hardcodedUserId)))
+        given(bookingService.createBooking(eq(bookingRequest), eq(tokenUserId)))
                 .willReturn(createdBooking);
 
         // Act & Assert
@@ -92,7 +127,7 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value(createdBooking.getStatus().toString()));
 
         // Verify that the service method was called exactly once with the correct arguments
-        verify(bookingService, times(1)).createBooking(eq(bookingRequest), eq(hardcodedUserId));
+        verify(bookingService, times(1)).createBooking(eq(bookingRequest), eq(tokenUserId));
         verifyNoMoreInteractions(bookingService); // Ensure no other unexpected calls were made
     }
 
@@ -101,7 +136,7 @@ class BookingControllerTest {
     void createBooking_ServiceReturnsPending_ShouldReturnOkAndPendingBooking() throws Exception {
         // Arrange
         Booking pendingBooking = createdBooking.builder().status(BookingStatus.PENDING).build(); // Create a pending version
-        given(bookingService.createBooking(eq(bookingRequest), eq(hardcodedUserId)))
+        given(bookingService.createBooking(eq(bookingRequest), eq(tokenUserId)))
                 .willReturn(pendingBooking);
 
         // Act & Assert
@@ -113,7 +148,7 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value(BookingStatus.PENDING.toString()));
 
         // Verify
-        verify(bookingService, times(1)).createBooking(eq(bookingRequest), eq(hardcodedUserId));
+        verify(bookingService, times(1)).createBooking(eq(bookingRequest), eq(tokenUserId));
     }
 
     @Test
@@ -121,7 +156,7 @@ class BookingControllerTest {
     void createBooking_ServiceReturnsCancelled_ShouldReturnOkAndCancelledBooking() throws Exception {
         // Arrange
         Booking cancelledBooking = createdBooking.builder().status(BookingStatus.CANCELLED).roomId(null).build(); // Simulate cancelled state
-        given(bookingService.createBooking(eq(bookingRequest), eq(hardcodedUserId)))
+        given(bookingService.createBooking(eq(bookingRequest), eq(tokenUserId)))
                 .willReturn(cancelledBooking);
 
         // Act & Assert
@@ -134,7 +169,7 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.roomId").doesNotExist()); // roomId should not be present or null
 
         // Verify
-        verify(bookingService, times(1)).createBooking(eq(bookingRequest), eq(hardcodedUserId));
+        verify(bookingService, times(1)).createBooking(eq(bookingRequest), eq(tokenUserId));
     }
 
 
@@ -144,7 +179,7 @@ class BookingControllerTest {
         // Arrange
         // Mock the service to throw an exception (e.g., RuntimeException)
         RuntimeException serviceException = new RuntimeException("Database error during booking creation");
-        given(bookingService.createBooking(eq(bookingRequest), eq(hardcodedUserId)))
+        given(bookingService.createBooking(eq(bookingRequest), eq(tokenUserId)))
                 .willThrow(serviceException);
 
         // Act & Assert
@@ -155,7 +190,7 @@ class BookingControllerTest {
                 .andExpect(status().isInternalServerError()); // Expect HTTP 500
 
         // Verify
-        verify(bookingService, times(1)).createBooking(eq(bookingRequest), eq(hardcodedUserId));
+        verify(bookingService, times(1)).createBooking(eq(bookingRequest), eq(tokenUserId));
     }
 
 
@@ -226,4 +261,99 @@ class BookingControllerTest {
         verify(bookingService, times(1)).getBooking(bookingIdToFind);
     }
 
-}
\ No newline at end of file
+    // =====================================================
+    //      ТЕСТЫ ДЛЯ ЭНДПОИНТА GET /api/bookings/availability
+    // =====================================================
+
+    @Test
+    @DisplayName("GET /api/bookings/availability: Should return free rooms from the calendar")
+    void availability_ShouldReturnFreeRooms() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = from.plusDays(3);
+        given(availabilityCalendar.freeRooms(from, to)).willReturn(java.util.List.of(101L, 102L));
+
+        mockMvc.perform(get("/api/bookings/availability")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.freeRoomIds[0]").value(101))
+                .andExpect(jsonPath("$.freeRoomIds[1]").value(102));
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/availability: Should return 400 for a range outside the calendar")
+    void availability_OutOfRange_ShouldReturnBadRequest() throws Exception {
+        LocalDate from = LocalDate.now().minusDays(10);
+        LocalDate to = from.plusDays(3);
+        given(availabilityCalendar.freeRooms(from, to)).willThrow(new IllegalArgumentException("out of range"));
+
+        mockMvc.perform(get("/api/bookings/availability")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    // =====================================================
+    //      ТЕСТЫ ДЛЯ ЭНДПОИНТОВ GET /api/bookings/.../events
+    // =====================================================
+
+    @Test
+    @DisplayName("GET /api/bookings/{id}/events: Should open a stream starting with the current status")
+    void bookingEvents_Found_ShouldStartStreamWithSnapshot() throws Exception {
+        List<BookingStatusUpdate> snapshots = new ArrayList<>();
+        given(bookingService.getBooking(testBookingId)).willReturn(Optional.of(createdBooking));
+        given(statusBroadcaster.subscribeToBooking(eq(testBookingId), any())).willAnswer(invocation -> {
+            Supplier<Optional<BookingStatusUpdate>> current = invocation.getArgument(1);
+            return current.get().map(update -> {
+                snapshots.add(update);
+                return new SseEmitter();
+            });
+        });
+
+        mockMvc.perform(get("/api/bookings/{id}/events", testBookingId))
+                .andExpect(request().asyncStarted());
+
+        assertEquals(List.of(new BookingStatusUpdate(testBookingId, tokenUserId, 101L, null, BookingStatus.PENDING)),
+                snapshots);
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/{id}/events: Should return 404 Not Found if booking is not found")
+    void bookingEvents_NotFound_ShouldReturnNotFound() throws Exception {
+        given(bookingService.getBooking(99L)).willReturn(Optional.empty());
+        given(statusBroadcaster.subscribeToBooking(eq(99L), any())).willAnswer(invocation -> {
+            Supplier<Optional<BookingStatusUpdate>> current = invocation.getArgument(1);
+            return current.get().map(update -> new SseEmitter());
+        });
+
+        mockMvc.perform(get("/api/bookings/{id}/events", 99L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/events: Should subscribe to the caller's bookings")
+    void myBookingEvents_ShouldSubscribeCaller() throws Exception {
+        given(statusBroadcaster.subscribeToUser(tokenUserId)).willReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/bookings/events"))
+                .andExpect(request().asyncStarted());
+
+        verify(statusBroadcaster).subscribeToUser(tokenUserId);
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @DisplayName("POST /api/bookings: Should reject a token without user id with 401")
+    void createBooking_TokenWithoutUserId_ShouldReturnUnauthorized() throws Exception {
+        authenticate(Jwt.withTokenValue("token").header("alg", "HS256").subject("user").build());
+
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingRequest)))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(bookingService);
+    }
+}
@@ -0,0 +1,55 @@
+package com.daniil.bookingservice.dto;
+
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingResponseSerializerTest {
+
+    private final ObjectMapper defaultMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectMapper fastMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new SimpleModule().addSerializer(BookingResponse.class, new BookingResponseSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void serialize_MatchesReflectiveEntityJson() throws Exception {
+        Booking booking = Booking.builder()
+                .id(42L)
+                .userId(7L)
+                .roomId(101L)
+                .startDate(LocalDate.of(2025, 7, 1))
+                .endDate(LocalDate.of(2025, 7, 4))
+                .status(BookingStatus.CONFIRMED)
+                .createdAt(LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000))
+                .correlationId("c-42")
+                .build();
+
+        assertEquals(defaultMapper.readTree(defaultMapper.writeValueAsString(booking)),
+                defaultMapper.readTree(fastMapper.writeValueAsString(BookingResponse.from(booking))));
+    }
+
+    @Test
+    void serialize_WritesNullsForMissingFields() throws Exception {
+        Booking booking = Booking.builder()
+                .id(1L)
+                .status(BookingStatus.CANCELLED)
+                .createdAt(LocalDateTime.of(2025, 6, 1, 12, 0))
+                .build();
+
+        assertEquals(defaultMapper.readTree(defaultMapper.writeValueAsString(booking)),
+                defaultMapper.readTree(fastMapper.writeValueAsString(BookingResponse.from(booking))));
+    }
+}
@@ -0,0 +1,93 @@
+package com.daniil.bookingservice.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookingFlowEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        recording = new Recording();
+        recording.enable(BookingPhaseEvent.class).withoutThreshold();
+        recording.enable(HotelServiceCallEvent.class).withoutThreshold();
+        recording.enable(PasswordHashEvent.class).withoutThreshold();
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void hotelServiceCall_RecordsAllocatedRoomAndFailures() throws IOException {
+        Long roomId = HotelServiceCallEvent.call("allocate", "corr-1", null, () -> 101L);
+        assertThrows(ResourceAccessException.class, () -> HotelServiceCallEvent.run("confirm", "corr-1", 101L, () -> {
+            throw new ResourceAccessException("timeout");
+        }));
+
+        List<RecordedEvent> events = events("com.daniil.bookingservice.HotelServiceCall");
+
+        assertEquals(101L, roomId);
+        assertEquals(2, events.size());
+        assertEquals("allocate", events.get(0).getString("operation"));
+        assertEquals(101L, events.get(0).getLong("roomId"));
+        assertEquals("ok", events.get(0).getString("outcome"));
+        assertEquals("corr-1", events.get(1).getString("correlationId"));
+        assertEquals("ResourceAccessException", events.get(1).getString("outcome"));
+    }
+
+    @Test
+    void bookingPhase_RecordsOutcomeAndRoom() throws IOException {
+        BookingPhaseEvent phase = BookingPhaseEvent.begin("allocate", "corr-2");
+        phase.end(null, "no-rooms");
+
+        List<RecordedEvent> events = events("com.daniil.bookingservice.BookingPhase");
+
+        assertEquals(1, events.size());
+        assertEquals("corr-2", events.get(0).getString("correlationId"));
+        assertEquals(0L, events.get(0).getLong("roomId"));
+        assertEquals("no-rooms", events.get(0).getString("outcome"));
+    }
+
+    @Test
+    void passwordEncoder_RecordsMatchOutcome() throws IOException {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.matches("secret", "hash")).thenReturn(false);
+
+        assertFalse(new JfrPasswordEncoder(delegate).matches("secret", "hash"));
+
+        List<RecordedEvent> events = events("com.daniil.bookingservice.PasswordHash");
+        assertEquals(1, events.size());
+        assertEquals("matches", events.get(0).getString("operation"));
+        assertEquals("mismatch", events.get(0).getString("outcome"));
+    }
+
+    private List<RecordedEvent> events(String name) throws IOException {
+        recording.stop();
+        Path file = tempDir.resolve("recording.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+    }
+}
@@ -0,0 +1,123 @@
+package com.daniil.bookingservice.journal;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_ThenRead_ReturnsEntriesInOrder() {
+        BookingJournal journal = open(DataSize.ofKilobytes(64), 4, false);
+
+        journal.append(1L, "c-1", BookingTransition.REQUESTED, null, BookingStatus.PENDING);
+        journal.append(1L, "c-1", BookingTransition.ALLOCATED, 101L, BookingStatus.PENDING);
+        long last = journal.append(1L, "c-1", BookingTransition.CONFIRMED, 101L, BookingStatus.CONFIRMED);
+
+        List<JournalEntry> entries = journal.read(1, 10);
+        assertEquals(3, entries.size());
+        assertEquals(last, entries.get(2).sequence());
+        assertNull(entries.get(0).roomId());
+        assertEquals(101L, entries.get(1).roomId());
+        assertEquals(BookingTransition.CONFIRMED, entries.get(2).transition());
+        assertEquals("c-1", entries.get(2).correlationId());
+        assertEquals(2, journal.read(2, 10).size());
+        journal.close();
+    }
+
+    @Test
+    void append_SyncWrites_ReturnsAfterGroupFsync() {
+        BookingJournal journal = open(DataSize.ofKilobytes(64), 4, true);
+
+        long sequence = journal.append(5L, "c-5", BookingTransition.REQUESTED, null, BookingStatus.PENDING);
+
+        assertEquals(1, sequence);
+        journal.close();
+    }
+
+    @Test
+    void awaitDurable_NoFsyncWithinTimeout_ReturnsFalse() {
+        BookingJournal journal = new BookingJournal(directory.toString(), DataSize.ofKilobytes(64), 4, 60_000, true, 50);
+
+        long started = System.nanoTime();
+        long sequence = journal.append(5L, "c-5", BookingTransition.REQUESTED, null, BookingStatus.PENDING);
+
+        assertTrue(System.nanoTime() - started < 5_000_000_000L);
+        assertFalse(journal.awaitDurable(sequence, 10));
+        journal.close();
+        assertTrue(journal.awaitDurable(sequence, 10));
+    }
+
+    @Test
+    void append_BeyondSegment_RollsOverAndAppliesRetention() throws IOException {
+        BookingJournal journal = open(DataSize.ofBytes(512), 2, false);
+
+        for (long i = 1; i <= 40; i++) {
+            journal.append(i, "c-" + i, BookingTransition.REQUESTED, null, BookingStatus.PENDING);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        List<JournalEntry> entries = journal.read(1, 100);
+        assertFalse(entries.isEmpty());
+        assertEquals(40, entries.get(entries.size() - 1).bookingId());
+        for (int i = 1; i < entries.size(); i++) {
+            assertEquals(entries.get(i - 1).sequence() + 1, entries.get(i).sequence());
+        }
+        journal.close();
+    }
+
+    @Test
+    void reopen_ContinuesSequenceAfterLastRecord() {
+        BookingJournal journal = open(DataSize.ofKilobytes(64), 4, false);
+        journal.append(1L, "c-1", BookingTransition.REQUESTED, null, BookingStatus.PENDING);
+        journal.append(1L, "c-1", BookingTransition.CANCELLED, null, BookingStatus.CANCELLED);
+        journal.close();
+
+        BookingJournal reopened = open(DataSize.ofKilobytes(64), 4, false);
+        long sequence = reopened.append(2L, "c-2", BookingTransition.REQUESTED, null, BookingStatus.PENDING);
+
+        assertEquals(3, sequence);
+        assertEquals(2, reopened.history(1L).size());
+        reopened.close();
+    }
+
+    @Test
+    void recorder_MapsStatusChangesToTransitions() {
+        LocalDate start = LocalDate.of(2025, 6, 1);
+
+        assertEquals(List.of(BookingTransition.REQUESTED, BookingTransition.ALLOCATED),
+                BookingJournalRecorder.transitions(event(null, null, 101L, BookingStatus.PENDING, start)));
+        assertEquals(List.of(BookingTransition.CONFIRMED),
+                BookingJournalRecorder.transitions(event(101L, BookingStatus.PENDING, 101L, BookingStatus.CONFIRMED, start)));
+        assertEquals(List.of(BookingTransition.COMPENSATED),
+                BookingJournalRecorder.transitions(event(101L, BookingStatus.PENDING, 101L, BookingStatus.CANCELLED, start)));
+        assertEquals(List.of(BookingTransition.REQUESTED, BookingTransition.CANCELLED),
+                BookingJournalRecorder.transitions(event(null, null, null, BookingStatus.CANCELLED, start)));
+    }
+
+    private BookingJournal open(DataSize segmentSize, int maxSegments, boolean syncWrites) {
+        return new BookingJournal(directory.toString(), segmentSize, maxSegments, 5, syncWrites, 1_000);
+    }
+
+    private static BookingStatusChangedEvent event(Long previousRoomId, BookingStatus previousStatus,
+                                                   Long roomId, BookingStatus status, LocalDate start) {
+        return new BookingStatusChangedEvent(1L, 1L, "c-1", start, start.plusDays(2),
+                previousRoomId, previousStatus, roomId, status);
+    }
+}
@@ -0,0 +1,102 @@
+package com.daniil.bookingservice.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final long MS = 1_000_000;
+
+    private final AtomicLong clock = new AtomicLong(1);
+    private final ServiceInstance fast1 = instance(8091);
+    private final ServiceInstance fast2 = instance(8092);
+    private final ServiceInstance degraded = instance(8093);
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.setMinRequests(5);
+        properties.setEjectionTime(Duration.ofSeconds(30));
+
+        ServiceInstanceListSupplier supplier = ServiceInstanceListSuppliers.from("hotel-service", fast1, fast2, degraded);
+        ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(supplier);
+        loadBalancer = new LatencyAwareLoadBalancer(provider, "hotel-service", properties, clock::get);
+    }
+
+    @Test
+    void choose_SlowInstance_ReceivesLittleTraffic() {
+        Map<Integer, Integer> picks = run(600, instance -> instance == degraded ? 200 * MS : 5 * MS, instance -> false);
+
+        assertTrue(picks.getOrDefault(8093, 0) < 30, "picks: " + picks);
+        assertTrue(picks.get(8091) > 200 && picks.get(8092) > 200, "picks: " + picks);
+    }
+
+    @Test
+    void choose_FailingInstance_IsEjectedAndLaterRetried() {
+        run(100, instance -> 5 * MS, instance -> instance == degraded);
+
+        Map<Integer, Integer> whileEjected = run(200, instance -> 5 * MS, instance -> false);
+        assertEquals(0, whileEjected.getOrDefault(8093, 0), "picks: " + whileEjected);
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        Map<Integer, Integer> afterEjection = run(200, instance -> 5 * MS, instance -> false);
+        assertTrue(afterEjection.getOrDefault(8093, 0) > 0, "picks: " + afterEjection);
+    }
+
+    @Test
+    void choose_AllInstancesEjected_StillReturnsInstance() {
+        run(100, instance -> 5 * MS, instance -> true);
+
+        Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>(new RequestDataContext())).block();
+
+        assertNotNull(response);
+        assertTrue(response.hasServer());
+    }
+
+    private Map<Integer, Integer> run(int requests,
+                                      ToLongFunction<ServiceInstance> latency,
+                                      Predicate<ServiceInstance> fails) {
+        Map<Integer, Integer> picks = new HashMap<>();
+        for (int i = 0; i < requests; i++) {
+            Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+            Response<ServiceInstance> response = loadBalancer.choose(request).block();
+            ServiceInstance instance = response.getServer();
+            picks.merge(instance.getPort(), 1, Integer::sum);
+
+            loadBalancer.onStartRequest(request, response);
+            clock.addAndGet(latency.applyAsLong(instance));
+            CompletionContext.Status status = fails.test(instance)
+                    ? CompletionContext.Status.FAILED
+                    : CompletionContext.Status.SUCCESS;
+            loadBalancer.onComplete(new CompletionContext<>(status, request, response, null));
+        }
+        return picks;
+    }
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance("hotel-service-" + port, "hotel-service", "localhost", port, false);
+    }
+}
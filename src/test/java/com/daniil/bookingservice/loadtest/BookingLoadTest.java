@@ -0,0 +1,64 @@
+package com.daniil.bookingservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный прогон booking flow без внешних сервисов: hotel-service заменён
+ * {@link HotelServiceStub}, Eureka — статическим discovery client. Rate limit и load shedding выключены.
+ * Запуск: mvn -Pload-test test -Dloadtest.mode=OPEN -Dloadtest.rate=500
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "booking.seed.mode=off",
+        "spring.jpa.show-sql=false",
+        // весь трафик идёт от одного subject (load-driver): лимитер и CoDel мерили бы себя, а не сервис
+        "booking.rate-limit.enabled=false",
+        "booking.load-shedding.enabled=false"
+})
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@Slf4j
+class BookingLoadTest {
+
+    private static HotelServiceStub hotelService;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void hotelService(DynamicPropertyRegistry registry) throws IOException {
+        hotelService = HotelServiceStub.start(HotelServiceStub.Behaviour.fromSystemProperties());
+        registry.add("spring.cloud.discovery.client.simple.instances.hotel-service[0].uri",
+                () -> hotelService.uri().toString());
+    }
+
+    @AfterAll
+    static void stopHotelService() {
+        if (hotelService != null) {
+            hotelService.close();
+        }
+    }
+
+    @Test
+    void bookingFlowUnderLoad() throws InterruptedException {
+        LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port), LoadDriver.Settings.fromSystemProperties());
+
+        LoadDriver.Report report = driver.run();
+
+        log.info("Load test report:\n{}", report.text());
+        log.info("hotel-service stub: allocate={} confirm={} release={} errors={}",
+                hotelService.allocations(), hotelService.confirmations(), hotelService.releases(), hotelService.errors());
+        assertTrue(report.bookingsCreated() > 0, "No successful bookings during the measured window");
+    }
+}
@@ -0,0 +1,159 @@
+package com.daniil.bookingservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Встроенная замена hotel-service для нагрузочных тестов:
+ * GET /api/rooms/allocate, POST /api/rooms/{id}/confirm, POST /api/rooms/{id}/release.
+ * Задержка = base + экспоненциальный хвост со средним tail; поведение можно менять на ходу.
+ */
+public class HotelServiceStub implements AutoCloseable {
+
+    /**
+     * @param errorRate   доля ответов 503 на allocate/confirm
+     * @param soldOutRate доля пустых ответов allocate (номеров нет)
+     */
+    public record Behaviour(Duration baseLatency, Duration latencyTail, double errorRate, double soldOutRate, int rooms) {
+
+        public static Behaviour healthy() {
+            return new Behaviour(Duration.ofMillis(2), Duration.ofMillis(3), 0.0, 0.0, 500);
+        }
+
+        public static Behaviour fromSystemProperties() {
+            return new Behaviour(
+                    Duration.ofMillis(Long.getLong("loadtest.hotel.latency-ms", 2)),
+                    Duration.ofMillis(Long.getLong("loadtest.hotel.tail-ms", 3)),
+                    Double.parseDouble(System.getProperty("loadtest.hotel.error-rate", "0.01")),
+                    Double.parseDouble(System.getProperty("loadtest.hotel.sold-out-rate", "0.05")),
+                    Integer.getInteger("loadtest.hotel.rooms", 500));
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile Behaviour behaviour;
+
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder confirmations = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private HotelServiceStub(Behaviour behaviour) throws IOException {
+        this.behaviour = behaviour;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/api/rooms/", this::handle);
+    }
+
+    public static HotelServiceStub start(Behaviour behaviour) throws IOException {
+        HotelServiceStub stub = new HotelServiceStub(behaviour);
+        stub.server.start();
+        return stub;
+    }
+
+    public URI uri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public void setBehaviour(Behaviour behaviour) {
+        this.behaviour = behaviour;
+    }
+
+    public long allocations() {
+        return allocations.sum();
+    }
+
+    public long confirmations() {
+        return confirmations.sum();
+    }
+
+    public long releases() {
+        return releases.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Behaviour current = behaviour;
+        try {
+            simulateLatency(current);
+            String path = exchange.getRequestURI().getPath();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            if (path.endsWith("/allocate")) {
+                allocations.increment();
+                if (random.nextDouble() < current.errorRate()) {
+                    errors.increment();
+                    respond(exchange, 503, "");
+                } else if (random.nextDouble() < current.soldOutRate()) {
+                    respond(exchange, 200, "");
+                } else {
+                    respond(exchange, 200, Long.toString(100L + random.nextInt(current.rooms())));
+                }
+            } else if (path.endsWith("/confirm")) {
+                confirmations.increment();
+                if (random.nextDouble() < current.errorRate()) {
+                    errors.increment();
+                    respond(exchange, 503, "");
+                } else {
+                    respond(exchange, 200, "");
+                }
+            } else if (path.endsWith("/release")) {
+                releases.increment();
+                respond(exchange, 200, "");
+            } else {
+                respond(exchange, 404, "");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void simulateLatency(Behaviour current) {
+        long tailMs = current.latencyTail().toMillis();
+        long extra = tailMs > 0 ? (long) (-tailMs * Math.log(1 - ThreadLocalRandom.current().nextDouble())) : 0;
+        long sleep = current.baseLatency().toMillis() + extra;
+        if (sleep <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0) {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+        }
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
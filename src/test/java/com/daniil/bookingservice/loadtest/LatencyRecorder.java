@@ -0,0 +1,51 @@
+package com.daniil.bookingservice.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Накопитель задержек одной операции. Хранит все значения — для прогонов
+ * в несколько минут этого достаточно, а перцентили получаются точными.
+ */
+class LatencyRecorder {
+
+    private final String name;
+    private long[] values = new long[4096];
+    private int size;
+    private long errors;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+    }
+
+    synchronized void recordError() {
+        errors++;
+    }
+
+    synchronized String summary(double seconds) {
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        return String.format("%-22s count=%-8d errors=%-6d throughput=%8.1f/s p50=%7.2fms p99=%7.2fms p999=%7.2fms max=%7.2fms",
+                name, size, errors, size / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    synchronized long count() {
+        return size;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,190 @@
+package com.daniil.bookingservice.loadtest;
+
+import com.daniil.bookingservice.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный драйвер сценария "создать бронирование, затем прочитать его".
+ *
+ * <ul>
+ *     <li>CLOSED — concurrency виртуальных пользователей, каждый ждёт ответ перед следующим запросом;</li>
+ *     <li>OPEN — запросы стартуют с фиксированной частотой rate независимо от ответов,
+ *     задержка считается от запланированного момента старта (без coordinated omission).</li>
+ * </ul>
+ */
+public class LoadDriver {
+
+    public enum Mode {OPEN, CLOSED}
+
+    public record Settings(Mode mode, int concurrency, double ratePerSecond, Duration duration, Duration warmup) {
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Mode.valueOf(System.getProperty("loadtest.mode", "CLOSED").toUpperCase()),
+                    Integer.getInteger("loadtest.concurrency", 32),
+                    Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                    Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30)),
+                    Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5)));
+        }
+    }
+
+    public record Report(String text, long bookingsCreated, long bookingsRead) {
+    }
+
+    private final URI baseUri;
+    private final Settings settings;
+    private final String authorization;
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LatencyRecorder createLatency = new LatencyRecorder("POST /api/bookings");
+    private final LatencyRecorder readLatency = new LatencyRecorder("GET /api/bookings/{id}");
+    private volatile long recordFrom;
+
+    public LoadDriver(URI baseUri, Settings settings) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.authorization = "Bearer " + new JwtTokenProvider().createToken("load-driver", "USER", 1L);
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public Report run() throws InterruptedException {
+        long start = System.nanoTime();
+        recordFrom = start + settings.warmup().toNanos();
+        long end = recordFrom + settings.duration().toNanos();
+
+        if (settings.mode() == Mode.CLOSED) {
+            runClosed(end);
+        } else {
+            runOpen(start, end);
+        }
+
+        double seconds = settings.duration().toNanos() / 1e9;
+        String text = String.format("mode=%s concurrency=%d rate=%.0f/s duration=%ds%n%s%n%s",
+                settings.mode(), settings.concurrency(), settings.ratePerSecond(), settings.duration().toSeconds(),
+                createLatency.summary(seconds), readLatency.summary(seconds));
+        return new Report(text, createLatency.count(), readLatency.count());
+    }
+
+    private void runClosed(long end) throws InterruptedException {
+        List<Thread> users = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            Thread user = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    bookAndRead(System.nanoTime()).join();
+                }
+            }, "load-user-" + i);
+            user.start();
+            users.add(user);
+        }
+        for (Thread user : users) {
+            user.join();
+        }
+    }
+
+    private void runOpen(long start, long end) {
+        long intervalNanos = (long) (1e9 / settings.ratePerSecond());
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.add(bookAndRead(intended));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                .orTimeout(30, TimeUnit.SECONDS)
+                .exceptionally(ex -> null)
+                .join();
+    }
+
+    private CompletableFuture<Void> bookAndRead(long intendedStart) {
+        LocalDate checkIn = LocalDate.now().plusDays(1 + (intendedStart & 63));
+        String body = String.format("{\"startDate\":\"%s\",\"endDate\":\"%s\",\"correlationId\":\"%s\"}",
+                checkIn, checkIn.plusDays(2), UUID.randomUUID());
+
+        HttpRequest create = HttpRequest.newBuilder(baseUri.resolve("/api/bookings"))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        return http.sendAsync(create, HttpResponse.BodyHandlers.ofString())
+                .thenCompose(response -> {
+                    if (!record(createLatency, intendedStart, response.statusCode())) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return read(response.body());
+                })
+                .exceptionally(ex -> {
+                    recordError(createLatency, intendedStart);
+                    return null;
+                });
+    }
+
+    /**
+     * Ошибки чтения считаются в readLatency, а не как ошибки создания.
+     */
+    private CompletableFuture<Void> read(String createdBody) {
+        long readStart = System.nanoTime();
+        HttpRequest read;
+        try {
+            read = HttpRequest.newBuilder(baseUri.resolve("/api/bookings/" + bookingId(createdBody)))
+                    .header("Authorization", authorization)
+                    .GET()
+                    .build();
+        } catch (RuntimeException e) {
+            recordError(readLatency, readStart);
+            return CompletableFuture.completedFuture(null);
+        }
+        return http.sendAsync(read, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(readResponse -> record(readLatency, readStart, readResponse.statusCode()))
+                .exceptionally(ex -> {
+                    recordError(readLatency, readStart);
+                    return null;
+                });
+    }
+
+    private boolean record(LatencyRecorder recorder, long startedAt, int status) {
+        if (startedAt < recordFrom) {
+            return status == 200;
+        }
+        if (status == 200) {
+            recorder.record(System.nanoTime() - startedAt);
+            return true;
+        }
+        recorder.recordError();
+        return false;
+    }
+
+    private void recordError(LatencyRecorder recorder, long startedAt) {
+        if (startedAt >= recordFrom) {
+            recorder.recordError();
+        }
+    }
+
+    private long bookingId(String json) {
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            return node.get("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected booking response: " + json, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.daniil.bookingservice.replica;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesTest {
+
+    @Test
+    void recordWrite_MakesOnlyThatClientSticky() {
+        ReadYourWrites readYourWrites = new ReadYourWrites(new ReadReplicaProperties());
+
+        readYourWrites.recordWrite("john_doe");
+
+        assertTrue(readYourWrites.isSticky("john_doe"));
+        assertFalse(readYourWrites.isSticky("jane_smith"));
+        assertFalse(readYourWrites.isSticky(null));
+    }
+
+    @Test
+    void stickiness_ExpiresAfterWindow() throws InterruptedException {
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setStickyWindow(Duration.ofMillis(30));
+        ReadYourWrites readYourWrites = new ReadYourWrites(properties);
+
+        readYourWrites.recordWrite("john_doe");
+        Thread.sleep(60);
+
+        assertFalse(readYourWrites.isSticky("john_doe"));
+    }
+
+    @Test
+    void zeroWindow_DisablesStickiness() {
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setStickyWindow(Duration.ZERO);
+        ReadYourWrites readYourWrites = new ReadYourWrites(properties);
+
+        readYourWrites.recordWrite("john_doe");
+
+        assertFalse(readYourWrites.isSticky("john_doe"));
+    }
+
+    @Test
+    void onPrimary_RestoresFlag() {
+        assertFalse(ReadYourWrites.primaryRequired());
+
+        boolean inside = ReadYourWrites.onPrimary(ReadYourWrites::primaryRequired);
+
+        assertTrue(inside);
+        assertFalse(ReadYourWrites.primaryRequired());
+    }
+}
@@ -0,0 +1,90 @@
+package com.daniil.bookingservice.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Основная БД и «реплика» — две H2 в памяти без репликации: строка, записанная в основную,
+ * видна только запросам, ушедшим в основную.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        primary = pool("jdbc:h2:mem:primary_" + run + ";DB_CLOSE_DELAY=-1");
+        replica = pool("jdbc:h2:mem:replica_" + run + ";DB_CLOSE_DELAY=-1");
+
+        DataSource dataSource = ReplicaRoutingDataSource.readWrite(primary, replica);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("""
+                INSERT INTO bookings (user_id, room_id, status, correlation_id) VALUES (1, 101, 'CONFIRMED', 'c-1')
+                """));
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransaction_ReadsReplica() {
+        assertEquals(0, countBookings(readOnly));
+    }
+
+    @Test
+    void readWriteTransaction_ReadsPrimary() {
+        assertEquals(1, countBookings(readWrite));
+    }
+
+    @Test
+    void pinnedThread_ReadsPrimaryEvenInReadOnlyTransaction() {
+        assertEquals(1, ReadYourWrites.onPrimary(() -> countBookings(readOnly)));
+        assertFalse(ReadYourWrites.primaryRequired());
+        assertEquals(0, countBookings(readOnly));
+    }
+
+    @Test
+    void withoutReplica_UsesPrimaryItself() {
+        assertSame(primary, ReplicaRoutingDataSource.readWrite(primary, null));
+    }
+
+    private int countBookings(TransactionTemplate template) {
+        Integer count = template.execute(status ->
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class));
+        return count != null ? count : -1;
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(2);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        return dataSource;
+    }
+}
@@ -0,0 +1,77 @@
+package com.daniil.bookingservice.repository;
+
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(BookingArchiveRepository.class)
+class BookingArchiveRepositoryTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingArchiveRepository archiveRepository;
+
+    private final LocalDate today = LocalDate.of(2025, 9, 1);
+    private final LocalDate endedBefore = today.minusDays(180);
+    private final LocalDateTime cancelledBefore = today.minusDays(30).atStartOfDay();
+
+    @Test
+    void moveToArchive_MovesOnlyArchivableRowsAndKeepsIds() {
+        Booking oldStay = save(BookingStatus.CONFIRMED, today.minusDays(400), today.minusDays(397), today.minusDays(420));
+        Booking oldCancel = save(BookingStatus.CANCELLED, today.plusDays(10), today.plusDays(12), today.minusDays(60));
+        Booking recentCancel = save(BookingStatus.CANCELLED, today.plusDays(10), today.plusDays(12), today.minusDays(5));
+        Booking upcoming = save(BookingStatus.CONFIRMED, today.plusDays(3), today.plusDays(5), today.minusDays(90));
+        bookingRepository.flush();
+
+        List<Long> ids = archiveRepository.findArchivableIds(0, endedBefore, cancelledBefore, 10);
+        int moved = archiveRepository.moveToArchive(ids, endedBefore, cancelledBefore, LocalDateTime.now());
+
+        assertEquals(List.of(oldStay.getId(), oldCancel.getId()), ids);
+        assertEquals(2, moved);
+        assertTrue(bookingRepository.findById(recentCancel.getId()).isPresent());
+        assertTrue(bookingRepository.findById(upcoming.getId()).isPresent());
+
+        Optional<Booking> archived = archiveRepository.findById(oldStay.getId());
+        assertTrue(archived.isPresent());
+        assertEquals(BookingStatus.CONFIRMED, archived.get().getStatus());
+        assertEquals(oldStay.getCorrelationId(), archived.get().getCorrelationId());
+    }
+
+    @Test
+    void findArchivableIds_UsesKeysetAndLimit() {
+        Booking first = save(BookingStatus.CONFIRMED, today.minusDays(400), today.minusDays(398), today.minusDays(420));
+        Booking second = save(BookingStatus.CONFIRMED, today.minusDays(390), today.minusDays(388), today.minusDays(420));
+        Booking third = save(BookingStatus.CONFIRMED, today.minusDays(380), today.minusDays(378), today.minusDays(420));
+        bookingRepository.flush();
+
+        assertEquals(List.of(first.getId(), second.getId()),
+                archiveRepository.findArchivableIds(0, endedBefore, cancelledBefore, 2));
+        assertEquals(List.of(third.getId()),
+                archiveRepository.findArchivableIds(second.getId(), endedBefore, cancelledBefore, 2));
+    }
+
+    private Booking save(BookingStatus status, LocalDate start, LocalDate end, LocalDate createdOn) {
+        return bookingRepository.save(Booking.builder()
+                .userId(1L)
+                .roomId(101L)
+                .startDate(start)
+                .endDate(end)
+                .status(status)
+                .createdAt(createdOn.atTime(12, 0))
+                .correlationId("archive-" + start + "-" + status + "-" + createdOn)
+                .build());
+    }
+}
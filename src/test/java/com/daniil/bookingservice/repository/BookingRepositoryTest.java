@@ -0,0 +1,88 @@
+package com.daniil.bookingservice.repository;
+
+import com.daniil.bookingservice.dto.DailyBookingAggregate;
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Агрегаты аналитики на H2: HQL с разностью дат (b.endDate - b.startDate) by day; условный переход статуса.
+ */
+@DataJpaTest
+class BookingRepositoryTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDate day = LocalDate.of(2031, 3, 10);
+
+    @Test
+    void aggregateDaily_GroupsByDayRoomAndStatusAndSumsNights() {
+        save(101L, BookingStatus.CONFIRMED, day, 3);
+        save(101L, BookingStatus.CONFIRMED, day, 2);
+        save(101L, BookingStatus.CANCELLED, day, 4);
+        save(102L, BookingStatus.CONFIRMED, day.plusDays(1), 7);
+        save(null, BookingStatus.CANCELLED, day.plusDays(1), 1);
+        // вне диапазона [from, toExclusive)
+        save(101L, BookingStatus.CONFIRMED, day.plusDays(2), 5);
+        bookingRepository.flush();
+
+        List<DailyBookingAggregate> rows = sorted(bookingRepository.aggregateDaily(day, day.plusDays(2)));
+
+        assertEquals(List.of(
+                new DailyBookingAggregate(day, 101L, BookingStatus.CONFIRMED, 2L, 5L),
+                new DailyBookingAggregate(day, 101L, BookingStatus.CANCELLED, 1L, 4L),
+                new DailyBookingAggregate(day.plusDays(1), 102L, BookingStatus.CONFIRMED, 1L, 7L),
+                new DailyBookingAggregate(day.plusDays(1), null, BookingStatus.CANCELLED, 1L, 1L)), rows);
+    }
+
+    @Test
+    void aggregateDailyForRoom_FiltersByRoom() {
+        save(101L, BookingStatus.CONFIRMED, day, 3);
+        save(102L, BookingStatus.CONFIRMED, day, 2);
+        bookingRepository.flush();
+
+        assertEquals(List.of(new DailyBookingAggregate(day, 102L, BookingStatus.CONFIRMED, 1L, 2L)),
+                bookingRepository.aggregateDailyForRoom(day, day.plusDays(1), 102L));
+    }
+
+    @Test
+    void updateStatusIfCurrent_AfterBulkCancel_KeepsCancelled() {
+        Booking booking = save(101L, BookingStatus.PENDING, day, 2);
+        bookingRepository.flush();
+        bookingRepository.updateStatus(List.of(booking.getId()), BookingStatus.CANCELLED);
+
+        // saga со старой копией (PENDING) пытается подтвердить
+        assertEquals(0, bookingRepository.updateStatusIfCurrent(booking.getId(), BookingStatus.PENDING, BookingStatus.CONFIRMED));
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    private List<DailyBookingAggregate> sorted(List<DailyBookingAggregate> rows) {
+        return rows.stream()
+                .sorted(Comparator.comparing(DailyBookingAggregate::getDay)
+                        .thenComparing(DailyBookingAggregate::getRoomId, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(DailyBookingAggregate::getStatus))
+                .toList();
+    }
+
+    private Booking save(Long roomId, BookingStatus status, LocalDate start, int nights) {
+        return bookingRepository.save(Booking.builder()
+                .userId(1L)
+                .roomId(roomId)
+                .startDate(start)
+                .endDate(start.plusDays(nights))
+                .status(status)
+                .createdAt(LocalDateTime.of(2031, 1, 1, 12, 0))
+                .correlationId("aggregate-" + roomId + "-" + status + "-" + start + "-" + nights)
+                .build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.daniil.bookingservice.repository;
+
+import com.daniil.bookingservice.dto.BookingResponse;
+import com.daniil.bookingservice.dto.BookingSearchCriteria;
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BookingSearchRepositoryTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDate base = LocalDate.of(2025, 7, 1);
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 30; i++) {
+            bookingRepository.save(Booking.builder()
+                    .userId((long) (i % 3))
+                    .roomId(100L + i % 5)
+                    .startDate(base.plusDays(i))
+                    .endDate(base.plusDays(i + 2))
+                    .status(i % 2 == 0 ? BookingStatus.CONFIRMED : BookingStatus.CANCELLED)
+                    .createdAt(LocalDateTime.of(2025, 6, 1, 0, 0).plusHours(i))
+                    .correlationId("search-" + i)
+                    .build());
+        }
+    }
+
+    @Test
+    void search_CombinesFilters() {
+        BookingSearchCriteria criteria = new BookingSearchCriteria();
+        criteria.setStatus(BookingStatus.CONFIRMED);
+        criteria.setUserId(0L);
+
+        Slice<BookingResponse> slice = bookingRepository.search(criteria, 50);
+
+        // i % 2 == 0 и i % 3 == 0 -> i = 0, 6, 12, 18, 24
+        assertEquals(5, slice.getNumberOfElements());
+        assertFalse(slice.hasNext());
+        slice.forEach(row -> {
+            assertEquals(BookingStatus.CONFIRMED, row.status());
+            assertEquals(0L, row.userId());
+        });
+    }
+
+    @Test
+    void search_DateOverlapAndRoom() {
+        BookingSearchCriteria criteria = new BookingSearchCriteria();
+        criteria.setRoomId(102L);
+        criteria.setFrom(base.plusDays(5));
+        criteria.setTo(base.plusDays(15));
+
+        Slice<BookingResponse> slice = bookingRepository.search(criteria, 50);
+
+        // номер 102: i = 2, 7, 12, 17, ...; пересекают [5, 15): i = 7, 12 (i = 2 выезжает в день 4)
+        assertEquals(List.of("search-12", "search-7"),
+                slice.getContent().stream().map(BookingResponse::correlationId).toList());
+    }
+
+    @Test
+    void search_KeysetPagesCoverAllRowsNewestFirst() {
+        BookingSearchCriteria criteria = new BookingSearchCriteria();
+        List<Long> seen = new ArrayList<>();
+
+        Slice<BookingResponse> slice;
+        do {
+            slice = bookingRepository.search(criteria, 7);
+            slice.forEach(row -> seen.add(row.id()));
+            if (slice.hasNext()) {
+                criteria.setBeforeId(slice.getContent().get(slice.getNumberOfElements() - 1).id());
+            }
+        } while (slice.hasNext());
+
+        assertEquals(30, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1) > seen.get(i));
+        }
+    }
+}
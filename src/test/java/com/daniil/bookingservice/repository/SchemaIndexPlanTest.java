@@ -0,0 +1,106 @@
+package com.daniil.bookingservice.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что схема из миграций проходит hibernate validate
+ * и что H2 действительно использует индексы для основных запросов.
+ */
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaIndexPlanTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * ANALYZE в H2 коммитит текущую транзакцию, поэтому данные вставляются один раз на класс
+     * вне тестовой транзакции и удаляются после всех тестов.
+     */
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < 200; i++) {
+            jdbcTemplate.update("""
+                            INSERT INTO bookings (user_id, room_id, start_date, end_date, status, created_at, correlation_id)
+                            VALUES (?, ?, DATEADD('DAY', ?, DATE '2025-01-01'), DATEADD('DAY', ?, DATE '2025-01-04'), ?, TIMESTAMP '2025-01-01 00:00:00', ?)
+                            """,
+                    (long) (i % 20), 100L + i % 50, i % 30, i % 30,
+                    i % 3 == 0 ? "CANCELLED" : "CONFIRMED", "plan-test-" + i);
+        }
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES ('plan_user', 'x', 'USER')");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE correlation_id LIKE 'plan-test-%'");
+        jdbcTemplate.update("DELETE FROM users WHERE username = 'plan_user'");
+    }
+
+    @Test
+    @DisplayName("findByCorrelationId использует уникальный индекс")
+    void correlationIdLookup_UsesUniqueIndex() {
+        assertUsesIndex("SELECT * FROM bookings WHERE correlation_id = 'plan-test-7'",
+                "UX_BOOKINGS_CORRELATION_ID");
+    }
+
+    @Test
+    @DisplayName("findByUsername использует уникальный индекс")
+    void usernameLookup_UsesUniqueIndex() {
+        assertUsesIndex("SELECT * FROM users WHERE username = 'plan_user'", "UX_USERS_USERNAME");
+    }
+
+    @Test
+    void userHistory_UsesUserCreatedIndex() {
+        assertUsesIndex("SELECT * FROM bookings WHERE user_id = 3 ORDER BY created_at DESC",
+                "IX_BOOKINGS_USER_CREATED");
+    }
+
+    @Test
+    void roomOverlap_UsesRoomDatesIndex() {
+        assertUsesIndex("""
+                        SELECT * FROM bookings
+                        WHERE room_id = 105 AND start_date < DATE '2025-01-20' AND end_date > DATE '2025-01-10'
+                        """,
+                "IX_BOOKINGS_ROOM_DATES");
+    }
+
+    @Test
+    void statusScan_UsesStatusCreatedIndex() {
+        assertUsesIndex("""
+                        SELECT * FROM bookings
+                        WHERE status = 'PENDING' AND created_at < TIMESTAMP '2025-01-02 00:00:00'
+                        """,
+                "IX_BOOKINGS_STATUS_CREATED");
+    }
+
+    @Test
+    void searchByStatus_UsesStatusIdIndex() {
+        assertUsesIndex("SELECT id FROM bookings WHERE status = 'CANCELLED' AND id < 150 ORDER BY id DESC",
+                "IX_BOOKINGS_STATUS_ID");
+    }
+
+    @Test
+    void searchByUserAndStatus_UsesUserStatusIdIndex() {
+        assertUsesIndex("SELECT id FROM bookings WHERE user_id = 3 AND status = 'CONFIRMED' ORDER BY id DESC",
+                "IX_BOOKINGS_USER_STATUS_ID");
+    }
+
+    private void assertUsesIndex(String sql, String indexName) {
+        String plan = String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+        assertTrue(plan.toUpperCase().contains(indexName), () -> "Expected " + indexName + " in plan:\n" + plan);
+    }
+}
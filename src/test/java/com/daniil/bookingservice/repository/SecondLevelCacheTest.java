@@ -0,0 +1,147 @@
+package com.daniil.bookingservice.repository;
+
+import com.daniil.bookingservice.config.SecondLevelCacheConfig;
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Кэш второго уровня поверх реальных транзакций: каждый вызов репозитория коммитится сам.
+ */
+@DataJpaTest(properties = "booking.l2-cache.enabled=true")
+@Import({SecondLevelCacheConfig.class, BookingArchiveRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingArchiveRepository archiveRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookingRepository.deleteAll();
+        userRepository.findByUsername("cached").ifPresent(userRepository::delete);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void findById_SecondReadIsServedFromCache() {
+        Booking booking = save(BookingStatus.PENDING);
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        bookingRepository.findById(booking.getId());
+        bookingRepository.findById(booking.getId());
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics("booking");
+        assertEquals(1, region.getMissCount());
+        assertEquals(1, region.getPutCount());
+        assertEquals(1, region.getHitCount());
+    }
+
+    @Test
+    void statusChange_UpdatesCachedEntry() {
+        Booking booking = save(BookingStatus.PENDING);
+        Booking loaded = bookingRepository.findById(booking.getId()).orElseThrow();
+
+        loaded.setStatus(BookingStatus.CONFIRMED);
+        bookingRepository.save(loaded);
+        statistics.clear();
+
+        assertEquals(BookingStatus.CONFIRMED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("booking").getHitCount());
+    }
+
+    @Test
+    void bulkStatusUpdate_EvictsBookingRegion() {
+        Booking booking = save(BookingStatus.PENDING);
+        bookingRepository.findById(booking.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Booking.class, booking.getId()));
+
+        inTransaction(() -> bookingRepository.updateStatus(List.of(booking.getId()), BookingStatus.CANCELLED));
+
+        assertFalse(entityManagerFactory.getCache().contains(Booking.class, booking.getId()));
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void moveToArchive_EvictsArchivedBookings() {
+        Booking booking = save(BookingStatus.CANCELLED);
+        bookingRepository.findById(booking.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Booking.class, booking.getId()));
+
+        LocalDate endedBefore = LocalDate.now().plusYears(1);
+        inTransaction(() -> archiveRepository.moveToArchive(List.of(booking.getId()), endedBefore,
+                LocalDateTime.now(), LocalDateTime.now()));
+
+        assertFalse(entityManagerFactory.getCache().contains(Booking.class, booking.getId()));
+        assertTrue(bookingRepository.findById(booking.getId()).isEmpty());
+    }
+
+    @Test
+    void findByUsername_SecondQueryIsServedFromQueryCache() {
+        userRepository.save(User.builder().username("cached").password("hash").role("USER").build());
+        statistics.clear();
+
+        assertTrue(userRepository.findByUsername("cached").isPresent());
+        assertTrue(userRepository.findByUsername("cached").isPresent());
+
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    private Booking save(BookingStatus status) {
+        LocalDate start = LocalDate.now().plusDays(10);
+        return bookingRepository.save(Booking.builder()
+                .userId(1L)
+                .roomId(101L)
+                .startDate(start)
+                .endDate(start.plusDays(2))
+                .status(status)
+                .createdAt(LocalDateTime.now())
+                .correlationId("l2-" + status + "-" + System.nanoTime())
+                .build());
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+}
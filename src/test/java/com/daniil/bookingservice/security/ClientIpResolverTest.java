@@ -0,0 +1,46 @@
+package com.daniil.bookingservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIpResolverTest {
+
+    @Test
+    void resolve_UntrustedPeer_IgnoresForwardedFor() {
+        ClientIpResolver resolver = resolver(List.of("10.0.0.0/8"));
+
+        assertEquals("203.0.113.7", resolver.resolve(request("203.0.113.7", "1.2.3.4")));
+        assertEquals("203.0.113.7", resolver(List.of()).resolve(request("203.0.113.7", "1.2.3.4")));
+    }
+
+    @Test
+    void resolve_TrustedPeer_TakesRightmostUntrustedHop() {
+        ClientIpResolver resolver = resolver(List.of("10.0.0.0/8", "192.168.1.5"));
+
+        // левый адрес подставлен клиентом, правые — наши прокси
+        assertEquals("198.51.100.9",
+                resolver.resolve(request("10.0.0.2", "6.6.6.6, 198.51.100.9, 192.168.1.5, 10.0.0.3")));
+        assertEquals("198.51.100.9", resolver.resolve(request("10.0.0.2", "198.51.100.9")));
+        assertEquals("10.0.0.2", resolver.resolve(request("10.0.0.2", null)));
+        assertEquals("not-an-ip", resolver.resolve(request("10.0.0.2", "not-an-ip")));
+    }
+
+    private static ClientIpResolver resolver(List<String> trustedProxies) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setTrustedProxies(trustedProxies);
+        return new ClientIpResolver(properties);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
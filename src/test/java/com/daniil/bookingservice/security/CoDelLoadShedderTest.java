@@ -0,0 +1,62 @@
+package com.daniil.bookingservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoDelLoadShedderTest {
+
+    private static final long MS = 1_000_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CoDelLoadShedder shedder = new CoDelLoadShedder(
+            Duration.ofMillis(20), Duration.ofMillis(200), Duration.ofSeconds(2), clock::get);
+
+    @Test
+    void admit_DrainingQueue_AllowsWaitsUpToInterval() {
+        assertTrue(shedder.admit(150 * MS, false));
+        assertFalse(shedder.admit(250 * MS, false));
+        assertFalse(shedder.isOverloaded());
+    }
+
+    @Test
+    void admit_StandingQueue_ShedsNormalAboveTargetButKeepsCritical() {
+        standingQueueForOneInterval();
+
+        assertTrue(shedder.isOverloaded());
+        assertFalse(shedder.admit(50 * MS, false));
+        assertTrue(shedder.admit(19 * MS, false));
+        assertTrue(shedder.admit(500 * MS, true));
+        assertFalse(shedder.admit(2_500 * MS, true));
+    }
+
+    @Test
+    void admit_QueueDrainsBelowTarget_RecoversAfterInterval() {
+        standingQueueForOneInterval();
+
+        shedder.admit(5 * MS, false);
+        clock.addAndGet(200 * MS);
+        shedder.admit(50 * MS, false);
+
+        assertFalse(shedder.isOverloaded());
+        assertTrue(shedder.admit(150 * MS, false));
+    }
+
+    @Test
+    void admit_UnknownQueueTime_AlwaysAdmits() {
+        standingQueueForOneInterval();
+
+        assertTrue(shedder.admit(InboundQueueTime.UNKNOWN, false));
+    }
+
+    private void standingQueueForOneInterval() {
+        for (int i = 0; i < 10; i++) {
+            shedder.admit(40 * MS, false);
+            clock.addAndGet(20 * MS);
+        }
+        shedder.admit(40 * MS, false);
+    }
+}
@@ -0,0 +1,111 @@
+package com.daniil.bookingservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setLimits(Map.of(
+                "USER", new RateLimitProperties.Limit(1, 3),
+                "VIP", new RateLimitProperties.Limit(1, 10)));
+        rateLimiter = new RateLimiter(properties, meterRegistry);
+    }
+
+    @Test
+    void tryAcquireBooking_AllowsBurstThenDeniesWithRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquireBooking("alice", "USER").allowed());
+        }
+
+        RateLimiter.Decision denied = rateLimiter.tryAcquireBooking("alice", "USER");
+
+        assertFalse(denied.allowed());
+        assertTrue(denied.retryAfterSeconds() >= 1);
+        assertEquals(3.0, count("booking", "allowed"));
+        assertEquals(1.0, count("booking", "denied"));
+    }
+
+    @Test
+    void tryAcquireBooking_UsesLimitOfRoleAndKeysPerPrincipal() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquireBooking("vip", "VIP").allowed());
+        }
+        assertFalse(rateLimiter.tryAcquireBooking("vip", "VIP").allowed());
+
+        assertTrue(rateLimiter.tryAcquireBooking("bob", "USER").allowed());
+    }
+
+    @Test
+    void tryAcquireAuth_KeysByUsernameAndIp() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquireAuth("alice", "10.0.0.1").allowed());
+        }
+
+        assertFalse(rateLimiter.tryAcquireAuth("alice", "10.0.0.1").allowed());
+        assertTrue(rateLimiter.tryAcquireAuth("alice", "10.0.0.2").allowed());
+    }
+
+    @Test
+    void evictIdle_RemovesFullBuckets() throws InterruptedException {
+        properties.setIdleTimeout(Duration.ofMillis(10));
+        rateLimiter.tryAcquireBooking("a", "USER");
+        rateLimiter.tryAcquireBooking("b", "USER");
+        assertEquals(2, rateLimiter.size());
+
+        Thread.sleep(1_100);
+        rateLimiter.evictIdle();
+
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    void keyFlood_AdmitsNewKeysAndKeepsHotBucket() {
+        properties.setMaxKeys(100);
+        // токен не успевает восстановиться за время потока
+        properties.setAuth(new RateLimitProperties.Limit(0.01, 5));
+        rateLimiter = new RateLimiter(properties, meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquireAuth("alice", "10.0.0.1").allowed());
+        }
+        assertFalse(rateLimiter.tryAcquireAuth("alice", "10.0.0.1").allowed());
+
+        // случайные username на логине: каждый новый ключ проходит, карта не растёт выше max-keys,
+        // а исчерпанный лимит ключа, по которому продолжают бить, потоком не сбрасывается
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(rateLimiter.tryAcquireAuth("random-" + i, "10.0.0.9").allowed());
+            if (i % 50 == 0) {
+                assertFalse(rateLimiter.tryAcquireAuth("alice", "10.0.0.1").allowed(), "reset after " + i);
+            }
+        }
+
+        assertTrue(rateLimiter.size() <= 100);
+        assertTrue(count("auth", "evicted") > 0);
+    }
+
+    @Test
+    void tryAcquire_Disabled_AlwaysAllows() {
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(rateLimiter.tryAcquireBooking("alice", "USER").allowed());
+        }
+        assertEquals(0, rateLimiter.size());
+    }
+
+    private double count(String scope, String outcome) {
+        return meterRegistry.counter("booking.ratelimit.requests", "scope", scope, "outcome", outcome).count();
+    }
+}
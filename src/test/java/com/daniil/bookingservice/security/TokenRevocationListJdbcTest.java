@@ -0,0 +1,76 @@
+package com.daniil.bookingservice.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Список отзыва на H2 со схемой из миграций: два экземпляра сервиса и рестарт экземпляра.
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationListJdbcTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Instant inHour = Instant.now().plusSeconds(3600);
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM revoked_tokens");
+    }
+
+    @Test
+    void revoke_SurvivesRestart() {
+        instance().revoke("jti-1", inHour);
+
+        TokenRevocationList restarted = instance();
+
+        assertTrue(restarted.isRevoked("jti-1"));
+        assertFalse(restarted.isRevoked("jti-2"));
+    }
+
+    @Test
+    void sync_PicksUpRevocationsFromOtherInstance() {
+        TokenRevocationList first = instance();
+        TokenRevocationList second = instance();
+
+        first.revoke("jti-1", inHour);
+        // повторный logout тем же токеном
+        first.revoke("jti-1", inHour);
+        assertFalse(second.isRevoked("jti-1"));
+
+        second.sync();
+        assertTrue(second.isRevoked("jti-1"));
+    }
+
+    @Test
+    void purgeExpired_DeletesExpiredRows() {
+        jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?)",
+                "expired", Timestamp.from(Instant.now().minusSeconds(1)), Timestamp.from(Instant.now().minusSeconds(60)));
+        TokenRevocationList list = instance();
+        list.revoke("live", inHour);
+
+        assertFalse(list.isRevoked("expired"));
+        list.purgeExpired();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revoked_tokens", Integer.class));
+        assertTrue(instance().isRevoked("live"));
+    }
+
+    private TokenRevocationList instance() {
+        TokenRevocationList list = new TokenRevocationList(jdbcTemplate, 10_000, 0.01);
+        list.load();
+        return list;
+    }
+}
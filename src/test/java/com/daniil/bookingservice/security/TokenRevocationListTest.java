@@ -0,0 +1,65 @@
+package com.daniil.bookingservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TokenRevocationListTest {
+
+    private final TokenRevocationList revocationList = new TokenRevocationList(mock(JdbcTemplate.class), 10_000, 0.01);
+    private final Instant inHour = Instant.now().plusSeconds(3600);
+
+    @Test
+    void revoke_MarksOnlyThatToken() {
+        revocationList.revoke("jti-1", inHour);
+
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    @Test
+    void revoke_AlreadyExpiredToken_IsNotStored() {
+        revocationList.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        assertFalse(revocationList.isRevoked("jti-1"));
+        assertEquals(0, revocationList.size());
+    }
+
+    @Test
+    void purgeExpired_DropsExpiredAndKeepsLiveEntriesInRebuiltFilter() throws InterruptedException {
+        revocationList.revoke("short", Instant.now().plusMillis(20));
+        revocationList.revoke("long", inHour);
+        Thread.sleep(50);
+
+        revocationList.purgeExpired();
+
+        assertEquals(1, revocationList.size());
+        assertFalse(revocationList.isRevoked("short"));
+        assertTrue(revocationList.isRevoked("long"));
+        assertTrue(revocationList.mightContain("long"));
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateStaysNearConfigured() {
+        for (int i = 0; i < 10_000; i++) {
+            revocationList.revoke(UUID.randomUUID().toString(), inHour);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String jti = UUID.randomUUID().toString();
+            if (revocationList.mightContain(jti)) {
+                falsePositives++;
+                assertFalse(revocationList.isRevoked(jti));
+            }
+        }
+
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,83 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.AnalyticsGranularity;
+import com.daniil.bookingservice.dto.DailyBookingAggregate;
+import com.daniil.bookingservice.dto.OccupancyStats;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.repository.BookingRepository;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    private final LocalDate monday = LocalDate.of(2025, 3, 3);
+
+    @Test
+    void occupancy_WeeklyGranularity_MergesDaysOfSameWeek() {
+        when(bookingRepository.aggregateDaily(monday, monday.plusDays(14))).thenReturn(List.of(
+                new DailyBookingAggregate(monday, 101L, BookingStatus.CONFIRMED, 2L, 6L),
+                new DailyBookingAggregate(monday.plusDays(3), 101L, BookingStatus.CONFIRMED, 1L, 2L),
+                new DailyBookingAggregate(monday.plusDays(4), 101L, BookingStatus.CANCELLED, 1L, 3L),
+                new DailyBookingAggregate(monday.plusDays(8), 101L, BookingStatus.CONFIRMED, 1L, 4L)
+        ));
+
+        List<OccupancyStats> result = analyticsService.occupancy(monday, monday.plusDays(13), AnalyticsGranularity.WEEK, null);
+
+        assertEquals(2, result.size());
+        OccupancyStats firstWeek = result.get(0);
+        assertEquals(monday, firstWeek.getPeriodStart());
+        assertEquals(3, firstWeek.getConfirmedBookings());
+        assertEquals(8, firstWeek.getConfirmedNights());
+        assertEquals(0.25, firstWeek.getCancellationRate(), 1e-9);
+        assertEquals(monday.plusDays(7), result.get(1).getPeriodStart());
+        assertEquals(4, result.get(1).getConfirmedNights());
+    }
+
+    @Test
+    void occupancy_CancelledWithoutRoom_CountsFailedAllocations() {
+        when(bookingRepository.aggregateDaily(monday, monday.plusDays(1))).thenReturn(List.of(
+                new DailyBookingAggregate(monday, null, BookingStatus.CANCELLED, 5L, 15L),
+                new DailyBookingAggregate(monday, 102L, BookingStatus.CANCELLED, 1L, 3L)
+        ));
+
+        List<OccupancyStats> result = analyticsService.occupancy(monday, monday, AnalyticsGranularity.DAY, null);
+
+        assertEquals(2, result.size());
+        assertNull(result.get(0).getRoomId());
+        assertEquals(5, result.get(0).getFailedAllocations());
+        assertEquals(1.0, result.get(0).getCancellationRate(), 1e-9);
+        assertEquals(0, result.get(1).getFailedAllocations());
+    }
+
+    @Test
+    void occupancy_WithRoomId_UsesRoomQuery() {
+        when(bookingRepository.aggregateDailyForRoom(monday, monday.plusDays(31), 101L)).thenReturn(List.of());
+
+        List<OccupancyStats> result = analyticsService.occupancy(monday, monday.plusDays(30), AnalyticsGranularity.MONTH, 101L);
+
+        assertTrue(result.isEmpty());
+        verify(bookingRepository, never()).aggregateDaily(any(), any());
+    }
+}
@@ -1,5 +1,7 @@
 package com.daniil.bookingservice.service;
 
+import com.daniil.bookingservice.dto.AuthResponse;
+import com.daniil.bookingservice.dto.RefreshTokenRequest;
 import com.daniil.bookingservice.dto.UserDto;
 import com.daniil.bookingservice.entity.User;
 import com.daniil.bookingservice.repository.UserRepository;
@@ -35,6 +37,9 @@ class AuthServiceTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -45,6 +50,7 @@ class AuthServiceTest {
     void setUp() {
         validUserDto = new UserDto(1L, "admin", "admin123", "ADMIN");
         existingUser = new User();
+        existingUser.setId(7L);
         existingUser.setUsername("testuser");
         existingUser.setPassword("encodedPassword");
         existingUser.setRole("USER");
@@ -55,13 +61,13 @@ class AuthServiceTest {
     void register_WithNewUser_ReturnsToken() {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-        when(jwtTokenProvider.createToken(anyString(), anyString())).thenReturn("generatedToken");
+        when(jwtTokenProvider.createToken(anyString(), anyString(), any())).thenReturn("generatedToken");
 
         ResponseEntity<?> response = authService.register(validUserDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(response.getBody() instanceof Map);
-        assertEquals("generatedToken", ((Map<?, ?>) response.getBody()).get("token"));
+        assertTrue(response.getBody() instanceof AuthResponse);
+        assertEquals("generatedToken", ((AuthResponse) response.getBody()).token());
         verify(userRepository, times(1)).save(any(User.class));
     }
 
@@ -85,19 +91,19 @@ class AuthServiceTest {
 
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-        when(jwtTokenProvider.createToken(anyString(), eq("USER"))).thenReturn("token");
+        when(jwtTokenProvider.createToken(anyString(), eq("USER"), any())).thenReturn("token");
 
         ResponseEntity<?> response = authService.register(adminUserDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(jwtTokenProvider).createToken(anyString(), eq("USER"));
+        verify(jwtTokenProvider).createToken(anyString(), eq("USER"), any());
     }
 
     @Test
     void register_EncodesPasswordBeforeSaving() {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-        when(jwtTokenProvider.createToken(anyString(), anyString())).thenReturn("token");
+        when(jwtTokenProvider.createToken(anyString(), anyString(), any())).thenReturn("token");
 
         authService.register(validUserDto);
 
@@ -109,13 +115,15 @@ class AuthServiceTest {
     void authenticate_WithValidCredentials_ReturnsToken() {
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(existingUser));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtTokenProvider.createToken(anyString(), anyString())).thenReturn("generatedToken");
+        when(jwtTokenProvider.createToken(anyString(), anyString(), any())).thenReturn("generatedToken");
+        when(refreshTokenService.issue(7L)).thenReturn("refreshToken");
 
         ResponseEntity<?> response = authService.authenticate(validUserDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(response.getBody() instanceof Map);
-        assertEquals("generatedToken", ((Map<?, ?>) response.getBody()).get("token"));
+        assertTrue(response.getBody() instanceof AuthResponse);
+        assertEquals("generatedToken", ((AuthResponse) response.getBody()).token());
+        assertEquals("refreshToken", ((AuthResponse) response.getBody()).refreshToken());
     }
 
     @Test
@@ -136,12 +144,12 @@ class AuthServiceTest {
         existingUser.setRole("ADMIN");
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(existingUser));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtTokenProvider.createToken(anyString(), eq("ADMIN"))).thenReturn("adminToken");
+        when(jwtTokenProvider.createToken(anyString(), eq("ADMIN"), any())).thenReturn("adminToken");
 
         ResponseEntity<?> response = authService.authenticate(validUserDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals("adminToken", ((Map<?, ?>) response.getBody()).get("token"));
+        assertEquals("adminToken", ((AuthResponse) response.getBody()).token());
     }
 
     @Test
@@ -149,10 +157,46 @@ class AuthServiceTest {
         UserDto mixedCaseUserDto = new UserDto(1L, "admin", "admin123", "ADMIN");
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(existingUser));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtTokenProvider.createToken(anyString(), anyString())).thenReturn("token");
+        when(jwtTokenProvider.createToken(anyString(), anyString(), any())).thenReturn("token");
 
         ResponseEntity<?> response = authService.authenticate(mixedCaseUserDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
+
+    // Refresh Tests
+    @Test
+    void refresh_WithValidToken_ReturnsNewPairWithoutPasswordCheck() {
+        when(refreshTokenService.rotate("old")).thenReturn(Optional.of(new RefreshTokenService.Rotation(7L, "new")));
+        when(userRepository.findById(7L)).thenReturn(Optional.of(existingUser));
+        when(jwtTokenProvider.createToken(eq("testuser"), eq("USER"), any())).thenReturn("accessToken");
+
+        ResponseEntity<?> response = authService.refresh(new RefreshTokenRequest("old"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        AuthResponse body = (AuthResponse) response.getBody();
+        assertEquals("accessToken", body.token());
+        assertEquals("new", body.refreshToken());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void refresh_WithRejectedToken_ReturnsUnauthorized() {
+        when(refreshTokenService.rotate("reused")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = authService.refresh(new RefreshTokenRequest("reused"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertEquals("Invalid refresh token", ((Map<?, ?>) response.getBody()).get("error"));
+        verify(jwtTokenProvider, never()).createToken(anyString(), anyString(), any());
+    }
+
+    @Test
+    void logout_RevokesAllRefreshTokensOfUser() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(existingUser));
+
+        authService.logout("testuser");
+
+        verify(refreshTokenService).revokeAll(7L);
+    }
 }
@@ -0,0 +1,68 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.repository.BookingArchiveRepository;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingArchiverTest {
+
+    @Mock
+    private BookingArchiveRepository archiveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+
+    @Test
+    void archive_WalksKeysetUntilShortBatch() {
+        BookingArchiver archiver = new BookingArchiver(archiveRepository, transactionManager, shardRouter, 180, 30, 3, 0, 100);
+        when(archiveRepository.findArchivableIds(eq(0L), any(), any(), eq(3))).thenReturn(List.of(1L, 4L, 9L));
+        when(archiveRepository.findArchivableIds(eq(9L), any(), any(), eq(3))).thenReturn(List.of(12L));
+        when(archiveRepository.moveToArchive(any(), any(), any(), any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        long moved = archiver.archive();
+
+        assertEquals(4, moved);
+        verify(archiveRepository).moveToArchive(eq(List.of(1L, 4L, 9L)), any(), any(), any());
+        verify(archiveRepository).moveToArchive(eq(List.of(12L)), any(), any(), any());
+        verify(archiveRepository, times(2)).findArchivableIds(anyLong(), any(), any(), anyInt());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void archive_StopsAfterMaxBatchesPerRun() {
+        BookingArchiver archiver = new BookingArchiver(archiveRepository, transactionManager, shardRouter, 180, 30, 2, 0, 2);
+        when(archiveRepository.findArchivableIds(anyLong(), any(), any(), eq(2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L, 6L));
+        when(archiveRepository.moveToArchive(any(), any(), any(), any())).thenReturn(2);
+
+        long moved = archiver.archive();
+
+        assertEquals(4, moved);
+        verify(archiveRepository, times(2)).findArchivableIds(anyLong(), any(), any(), eq(2));
+    }
+
+    @Test
+    void archive_NothingToArchive_DoesNotOpenTransaction() {
+        BookingArchiver archiver = new BookingArchiver(archiveRepository, transactionManager, shardRouter, 180, 30, 500, 0, 10);
+        when(archiveRepository.findArchivableIds(anyLong(), any(), any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, archiver.archive());
+        verifyNoInteractions(transactionManager);
+    }
+}
@@ -0,0 +1,113 @@
+package com.daniil.bookingservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingRequestCoalescerTest {
+
+    @Test
+    void execute_ConcurrentDuplicates_RunActionOnce() throws Exception {
+        BookingRequestCoalescer coalescer = new BookingRequestCoalescer(100, 5_000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture<Long> leader = CompletableFuture.supplyAsync(() -> coalescer.execute("c-1", () -> {
+                calls.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return 42L;
+            }), pool);
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> coalescer.execute("c-1", () -> (long) calls.incrementAndGet()), pool);
+            CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> coalescer.execute("c-1", () -> (long) calls.incrementAndGet()), pool);
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(42L, leader.get(5, TimeUnit.SECONDS));
+            assertEquals(42L, first.get(5, TimeUnit.SECONDS));
+            assertEquals(42L, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+            assertEquals(0, coalescer.inFlight());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_LeaderFails_FollowerGetsSameException() throws Exception {
+        BookingRequestCoalescer coalescer = new BookingRequestCoalescer(100, 5_000);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> coalescer.execute("c-2", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new IllegalStateException("hotel-service down");
+            }), pool);
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> coalescer.execute("c-2", () -> "unexpected"), pool);
+            Thread.sleep(100);
+            release.countDown();
+
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+            assertInstanceOf(IllegalStateException.class, followerError.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_LeaderTooSlow_FollowerGetsConflict() throws Exception {
+        BookingRequestCoalescer coalescer = new BookingRequestCoalescer(100, 50);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> coalescer.execute("c-3", () -> {
+                leaderStarted.countDown();
+                await(release);
+                return 1L;
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                    () -> coalescer.execute("c-3", () -> 2L));
+            assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WithoutKey_RunsDirectly() {
+        BookingRequestCoalescer coalescer = new BookingRequestCoalescer(100, 50);
+
+        assertEquals(7L, coalescer.execute(null, () -> 7L));
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
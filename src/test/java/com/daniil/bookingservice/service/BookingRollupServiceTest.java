@@ -0,0 +1,172 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.DailyBookingAggregate;
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import com.daniil.bookingservice.repository.BookingRepository;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rollup на H2 со схемой из миграций: MERGE-инкременты, пересчёт и чтение. Без тестовой транзакции —
+ * пересчёт открывает свою, а блокировка против инкрементов проверяется из двух потоков.
+ */
+@DataJpaTest
+@Import({BookingRollupService.class, ShardRouter.class, ShardingProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingRollupServiceTest {
+
+    @Autowired
+    private BookingRollupService rollupService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate day = LocalDate.of(2032, 5, 20);
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM booking_daily_rollup");
+        jdbcTemplate.update("DELETE FROM bookings_archive");
+        jdbcTemplate.update("DELETE FROM bookings");
+    }
+
+    @Test
+    void onStatusChanged_UpsertsCountersAndMovesTransition() {
+        rollupService.onStatusChanged(event(1L, null, null, 101L, BookingStatus.PENDING, 3));
+        rollupService.onStatusChanged(event(2L, null, null, 101L, BookingStatus.PENDING, 2));
+        rollupService.onStatusChanged(event(3L, null, null, null, BookingStatus.PENDING, 1));
+        rollupService.onStatusChanged(event(1L, 101L, BookingStatus.PENDING, 101L, BookingStatus.CONFIRMED, 3));
+
+        assertEquals(List.of(
+                new DailyBookingAggregate(day, 101L, BookingStatus.PENDING, 1L, 2L),
+                new DailyBookingAggregate(day, 101L, BookingStatus.CONFIRMED, 1L, 3L),
+                new DailyBookingAggregate(day, null, BookingStatus.PENDING, 1L, 1L)),
+                sorted(rollupService.readDaily(day, day.plusDays(1), null)));
+        assertEquals(List.of(new DailyBookingAggregate(day, 101L, BookingStatus.CONFIRMED, 1L, 3L)),
+                rollupService.readDaily(day, day.plusDays(1), 101L).stream()
+                        .filter(row -> row.getStatus() == BookingStatus.CONFIRMED)
+                        .toList());
+    }
+
+    @Test
+    void readDaily_SkipsZeroCountersAndOutOfRangeDays() {
+        rollupService.onStatusChanged(event(1L, null, null, 101L, BookingStatus.PENDING, 3));
+        rollupService.onStatusChanged(event(1L, 101L, BookingStatus.PENDING, 101L, BookingStatus.CANCELLED, 3));
+
+        assertEquals(List.of(new DailyBookingAggregate(day, 101L, BookingStatus.CANCELLED, 1L, 3L)),
+                rollupService.readDaily(day, day.plusDays(1), null));
+        assertTrue(rollupService.readDaily(day.plusDays(1), day.plusDays(2), null).isEmpty());
+    }
+
+    @Test
+    void rebuild_ReplacesCountersWithBookingsAndArchive() {
+        save(101L, BookingStatus.CONFIRMED, 3);
+        save(101L, BookingStatus.CONFIRMED, 2);
+        save(null, BookingStatus.CANCELLED, 4);
+        jdbcTemplate.update("""
+                INSERT INTO bookings_archive (id, user_id, room_id, start_date, end_date, status, created_at,
+                                              correlation_id, archived_at)
+                VALUES (900001, 1, 101, ?, ?, 'CONFIRMED', ?, 'archived-1', ?)
+                """, day, day.plusDays(1), LocalDateTime.of(2032, 1, 1, 12, 0), LocalDateTime.of(2032, 6, 1, 12, 0));
+        // расхождение, которое пересчёт должен убрать
+        rollupService.onStatusChanged(event(99L, null, null, 555L, BookingStatus.PENDING, 7));
+
+        int rows = rollupService.rebuild();
+
+        assertEquals(2, rows);
+        assertEquals(List.of(
+                new DailyBookingAggregate(day, 101L, BookingStatus.CONFIRMED, 3L, 6L),
+                new DailyBookingAggregate(day, null, BookingStatus.CANCELLED, 1L, 4L)),
+                sorted(rollupService.readDaily(day, day.plusDays(1), null)));
+    }
+
+    @Test
+    void rebuild_WaitsForOpenIncrementTransaction() throws Exception {
+        CountDownLatch incremented = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            Booking booking = save(101L, BookingStatus.PENDING, 3);
+            rollupService.onStatusChanged(event(booking.getId(), null, null, 101L, BookingStatus.PENDING, 3));
+            incremented.countDown();
+            await(release);
+        }));
+        assertTrue(incremented.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> rebuild = CompletableFuture.supplyAsync(rollupService::rebuild);
+        Thread.sleep(200);
+        assertFalse(rebuild.isDone(), "rebuild must wait for the open increment transaction");
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        // бронирование посчитано ровно один раз: и инкремент, и пересчёт его видят, но пересчёт заменяет счётчик
+        assertEquals(List.of(new DailyBookingAggregate(day, 101L, BookingStatus.PENDING, 1L, 3L)),
+                rollupService.readDaily(day, day.plusDays(1), null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<DailyBookingAggregate> sorted(List<DailyBookingAggregate> rows) {
+        return rows.stream()
+                .sorted(Comparator.comparing(DailyBookingAggregate::getDay)
+                        .thenComparing(DailyBookingAggregate::getRoomId, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(DailyBookingAggregate::getStatus))
+                .toList();
+    }
+
+    private BookingStatusChangedEvent event(Long bookingId, Long previousRoomId, BookingStatus previousStatus,
+                                            Long roomId, BookingStatus status, int nights) {
+        return new BookingStatusChangedEvent(bookingId, 1L, "rollup-" + bookingId, day, day.plusDays(nights),
+                previousRoomId, previousStatus, roomId, status);
+    }
+
+    private Booking save(Long roomId, BookingStatus status, int nights) {
+        return bookingRepository.save(Booking.builder()
+                .userId(1L)
+                .roomId(roomId)
+                .startDate(day)
+                .endDate(day.plusDays(nights))
+                .status(status)
+                .createdAt(LocalDateTime.of(2032, 1, 1, 12, 0))
+                .correlationId("rollup-" + roomId + "-" + status + "-" + nights)
+                .build());
+    }
+}
@@ -5,17 +5,31 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.daniil.bookingservice.dto.BookingRequest;
 import com.daniil.bookingservice.entity.Booking;
 import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import com.daniil.bookingservice.repository.BookingArchiveRepository;
 import com.daniil.bookingservice.repository.BookingRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.ConnectException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -24,6 +38,7 @@ import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +53,22 @@ class BookingServiceTest {
     @Mock
     private CircuitBreakerRegistry circuitBreakerRegistry;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PendingBookingQueue pendingBookingQueue;
+
+    @Mock
+    private BookingArchiveRepository bookingArchiveRepository;
+
+    @Spy
+    private HotelServiceRetry hotelServiceRetry = new HotelServiceRetry(
+            new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ZERO, 0.1, 10);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -51,6 +82,7 @@ class BookingServiceTest {
         bookingRequest.setStartDate(LocalDate.now().plusDays(1));
         bookingRequest.setEndDate(LocalDate.now().plusDays(3));
         bookingRequest.setCorrelationId(correlationId);
+        lenient().when(bookingRepository.updateStatusIfCurrent(any(), any(), any())).thenReturn(1);
     }
 
     @Test
@@ -72,6 +104,25 @@ class BookingServiceTest {
         verify(restTemplate).postForEntity(anyString(), isNull(), any());
     }
 
+    @Test
+    void createBooking_PublishesCreationAndConfirmation() {
+        // Arrange
+        when(bookingRepository.findByCorrelationId(anyString())).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(anyString(), any())).thenReturn(101L);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        bookingService.createBooking(bookingRequest, userId);
+
+        // Assert
+        ArgumentCaptor<BookingStatusChangedEvent> events = ArgumentCaptor.forClass(BookingStatusChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertTrue(events.getAllValues().get(0).isCreation());
+        assertEquals(BookingStatus.PENDING, events.getAllValues().get(0).status());
+        assertEquals(BookingStatus.PENDING, events.getAllValues().get(1).previousStatus());
+        assertEquals(BookingStatus.CONFIRMED, events.getAllValues().get(1).status());
+    }
+
     @Test
     void createBooking_WithExistingCorrelationId_ReturnsExistingBooking() {
         // Arrange
@@ -124,6 +175,63 @@ class BookingServiceTest {
         verify(restTemplate, times(2)).postForEntity(anyString(), isNull(), any());
     }
 
+    @Test
+    void createBooking_CancelledDuringConfirm_KeepsCancelledAndReleasesRoom() {
+        // Arrange: массовая отмена закоммитила CANCELLED между persist и confirm
+        Long roomId = 101L;
+        when(bookingRepository.findByCorrelationId(anyString())).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(anyString(), any())).thenReturn(roomId);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(7L);
+            return booking;
+        });
+        when(bookingRepository.updateStatusIfCurrent(7L, BookingStatus.PENDING, BookingStatus.CONFIRMED)).thenReturn(0);
+        when(bookingRepository.findById(7L)).thenReturn(Optional.of(
+                Booking.builder().id(7L).roomId(roomId).status(BookingStatus.CANCELLED).build()));
+
+        // Act
+        Booking result = bookingService.createBooking(bookingRequest, userId);
+
+        // Assert
+        assertEquals(BookingStatus.CANCELLED, result.getStatus());
+        verify(restTemplate).postForEntity(eq("http://hotel-service/api/rooms/101/confirm"), isNull(), any());
+        verify(restTemplate).postForEntity(eq("http://hotel-service/api/rooms/101/release"), isNull(), any());
+        verify(bookingRepository, never()).updateStatusIfCurrent(7L, BookingStatus.PENDING, BookingStatus.CANCELLED);
+        // только создание: ни CONFIRMED, ни повторной отмены
+        verify(eventPublisher, times(1)).publishEvent(any(BookingStatusChangedEvent.class));
+    }
+
+    @Test
+    void createBooking_WhenAllocateTimesOut_DoesNotRetry() {
+        // Arrange
+        when(bookingRepository.findByCorrelationId(anyString())).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(anyString(), any()))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        // Act & Assert: hotel-service мог уже выделить номер — повтор выделил бы второй
+        assertThrows(ResourceAccessException.class, () -> bookingService.createBooking(bookingRequest, userId));
+        verify(restTemplate).getForObject(anyString(), any());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void createBooking_WhenAllocateConnectionRefused_RetriesAndConfirms() {
+        // Arrange
+        when(bookingRepository.findByCorrelationId(anyString())).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(anyString(), any()))
+                .thenThrow(new ResourceAccessException("I/O error", new ConnectException("Connection refused")))
+                .thenReturn(101L);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Booking result = bookingService.createBooking(bookingRequest, userId);
+
+        // Assert
+        assertEquals(BookingStatus.CONFIRMED, result.getStatus());
+        verify(restTemplate, times(2)).getForObject(anyString(), any());
+    }
+
     @Test
     void createBooking_WithoutCorrelationId_GeneratesNewOne() {
         // Arrange
@@ -141,6 +249,81 @@ class BookingServiceTest {
     }
 
 
+    @Test
+    void fallbackCreateBooking_CircuitOpenInDegradedMode_QueuesPendingBooking() {
+        // Arrange
+        ReflectionTestUtils.setField(bookingService, "degradedModeEnabled", true);
+        when(bookingRepository.findByCorrelationId(correlationId)).thenReturn(Optional.empty());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(7L);
+            return booking;
+        });
+        CallNotPermittedException open = CallNotPermittedException.createCallNotPermittedException(
+                CircuitBreaker.ofDefaults("hotelServiceCB"));
+
+        // Act
+        Booking result = bookingService.fallbackCreateBooking(bookingRequest, userId, open);
+
+        // Assert
+        assertEquals(BookingStatus.PENDING, result.getStatus());
+        assertEquals(correlationId, result.getCorrelationId());
+        assertNull(result.getRoomId());
+        verify(pendingBookingQueue).enqueue(7L, correlationId);
+        verify(transactionTemplate, times(1)).execute(any());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void fallbackCreateBooking_WithoutDegradedMode_CancelsUnderOriginalCorrelationId() {
+        // Arrange
+        when(bookingRepository.findByCorrelationId(correlationId)).thenReturn(Optional.empty());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Booking result = bookingService.fallbackCreateBooking(bookingRequest, userId, new RestClientException("down"));
+
+        // Assert
+        assertEquals(BookingStatus.CANCELLED, result.getStatus());
+        assertEquals(correlationId, result.getCorrelationId());
+        verifyNoInteractions(pendingBookingQueue);
+    }
+
+    @Test
+    void processQueuedBooking_AllocatesAndConfirms() {
+        // Arrange
+        Booking queued = Booking.builder().id(7L).userId(userId).status(BookingStatus.PENDING)
+                .startDate(bookingRequest.getStartDate()).endDate(bookingRequest.getEndDate())
+                .correlationId(correlationId).build();
+        when(bookingRepository.findById(7L)).thenReturn(Optional.of(queued));
+        when(restTemplate.getForObject(anyString(), any())).thenReturn(101L);
+
+        // Act
+        Booking result = bookingService.processQueuedBooking(7L);
+
+        // Assert
+        assertEquals(BookingStatus.CONFIRMED, result.getStatus());
+        assertEquals(101L, result.getRoomId());
+        ArgumentCaptor<BookingStatusChangedEvent> events = ArgumentCaptor.forClass(BookingStatusChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertNull(events.getAllValues().get(0).previousRoomId());
+        assertEquals(101L, events.getAllValues().get(0).roomId());
+    }
+
+    @Test
+    void processQueuedBooking_AlreadyProcessed_DoesNothing() {
+        // Arrange
+        Booking confirmed = Booking.builder().id(7L).roomId(101L).status(BookingStatus.CONFIRMED).build();
+        when(bookingRepository.findById(7L)).thenReturn(Optional.of(confirmed));
+
+        // Act
+        bookingService.processQueuedBooking(7L);
+
+        // Assert
+        verifyNoInteractions(restTemplate);
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void getBooking_WithExistingId_ReturnsBooking() {
         // Arrange
@@ -169,6 +352,21 @@ class BookingServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void getBooking_ArchivedId_FallsBackToArchive() {
+        // Arrange
+        Long bookingId = 5L;
+        Booking archived = Booking.builder().id(bookingId).status(BookingStatus.CONFIRMED).build();
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
+        when(bookingArchiveRepository.findById(bookingId)).thenReturn(Optional.of(archived));
+
+        // Act
+        Optional<Booking> result = bookingService.getBooking(bookingId);
+
+        // Assert
+        assertEquals(Optional.of(archived), result);
+    }
+
     @Test
     void saveBooking_SetsAllFieldsCorrectly() {
         // Arrange
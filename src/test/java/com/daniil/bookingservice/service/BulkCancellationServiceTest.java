@@ -0,0 +1,145 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.BulkCancelJob;
+import com.daniil.bookingservice.dto.BulkCancelRequest;
+import com.daniil.bookingservice.entity.Booking;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import com.daniil.bookingservice.repository.BookingRepository;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkCancellationServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache occupancyCache;
+
+    private BulkCancellationService service;
+    private final LocalDate from = LocalDate.of(2025, 7, 1);
+
+    @BeforeEach
+    void setUp() {
+        HotelServiceRetry retry = new HotelServiceRetry(new SimpleMeterRegistry(), 1, Duration.ZERO, Duration.ZERO, 0.1, 10);
+        service = new BulkCancellationService(bookingRepository, transactionManager, eventPublisher,
+                restTemplate, retry, cacheManager, new ShardRouter(new ShardingProperties()), 2, 2);
+        lenient().when(cacheManager.getCache("occupancy")).thenReturn(occupancyCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void run_CancelsChunksWithSingleUpdateAndReleasesRooms() {
+        Booking first = booking(1L, 101L, BookingStatus.CONFIRMED);
+        Booking second = booking(2L, 102L, BookingStatus.PENDING);
+        when(bookingRepository.findChunkForBulkCancel(any(), any(), any(), any(), eq(0L), any()))
+                .thenReturn(List.of(first, second));
+        when(bookingRepository.findChunkForBulkCancel(any(), any(), any(), any(), eq(2L), any()))
+                .thenReturn(List.of());
+        when(restTemplate.postForEntity(anyString(), isNull(), any())).thenAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).contains("/102/release")) {
+                throw new RestClientException("hotel-service down");
+            }
+            return null;
+        });
+
+        BulkCancelJob job = new BulkCancelJob("job-1", request(), Instant.now());
+        service.run(job);
+
+        assertEquals(BulkCancelJob.State.COMPLETED, job.getState());
+        assertEquals(2, job.getCancelled());
+        assertEquals(1, job.getRoomsReleased());
+        assertEquals(1, job.getReleaseFailures());
+        assertEquals(1, job.getChunks());
+        verify(bookingRepository).updateStatus(List.of(1L, 2L), BookingStatus.CANCELLED);
+        verify(occupancyCache).clear();
+
+        ArgumentCaptor<BookingStatusChangedEvent> events = ArgumentCaptor.forClass(BookingStatusChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(BookingStatus.CONFIRMED, events.getAllValues().get(0).previousStatus());
+        assertEquals(BookingStatus.PENDING, events.getAllValues().get(1).previousStatus());
+        assertEquals(BookingStatus.CANCELLED, events.getAllValues().get(1).status());
+    }
+
+    @Test
+    void run_RepositoryFailure_MarksJobFailed() {
+        when(bookingRepository.findChunkForBulkCancel(any(), any(), any(), any(), anyLong(), any()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        BulkCancelJob job = new BulkCancelJob("job-2", request(), Instant.now());
+        service.run(job);
+
+        assertEquals(BulkCancelJob.State.FAILED, job.getState());
+        assertEquals("db down", job.getError());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void start_InvalidRange_Throws() {
+        BulkCancelRequest request = request();
+        request.setTo(from);
+
+        assertThrows(IllegalArgumentException.class, () -> service.start(request));
+    }
+
+    private BulkCancelRequest request() {
+        BulkCancelRequest request = new BulkCancelRequest();
+        request.setRoomIds(List.of(101L, 102L));
+        request.setFrom(from);
+        request.setTo(from.plusDays(14));
+        return request;
+    }
+
+    private Booking booking(Long id, Long roomId, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .userId(1L)
+                .roomId(roomId)
+                .startDate(from.plusDays(1))
+                .endDate(from.plusDays(3))
+                .status(status)
+                .correlationId("c-" + id)
+                .build();
+    }
+}
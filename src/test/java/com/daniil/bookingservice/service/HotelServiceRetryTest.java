@@ -0,0 +1,124 @@
+package com.daniil.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotelServiceRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void call_TransientFailures_RetriesUpToMaxAttempts() {
+        HotelServiceRetry retry = new HotelServiceRetry(meterRegistry, 3, Duration.ZERO, Duration.ZERO, 0.1, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(HttpServerErrorException.class, () -> retry.call("allocate", () -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(2.0, retries("allocate", "spent"));
+    }
+
+    @Test
+    void call_ClientError_IsNotRetried() {
+        HotelServiceRetry retry = new HotelServiceRetry(meterRegistry, 3, Duration.ZERO, Duration.ZERO, 0.1, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class, () -> retry.call("confirm", () -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.CONFLICT);
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void callNonIdempotent_RetriesOnlyUnsentRequests() {
+        HotelServiceRetry retry = new HotelServiceRetry(meterRegistry, 3, Duration.ZERO, Duration.ZERO, 0.1, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ResourceAccessException.class, () -> retry.callNonIdempotent("allocate", () -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"));
+        }));
+        assertThrows(HttpServerErrorException.class, () -> retry.callNonIdempotent("allocate", () -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+        assertEquals(2, calls.get());
+
+        Long roomId = retry.callNonIdempotent("allocate", () -> {
+            if (calls.incrementAndGet() == 3) {
+                throw new ResourceAccessException("I/O error", new ConnectException("Connection refused"));
+            }
+            return 101L;
+        });
+        assertEquals(101L, roomId);
+        assertEquals(1.0, retries("allocate", "spent"));
+    }
+
+    @Test
+    void call_BudgetExhausted_DeniesRetries() {
+        HotelServiceRetry retry = new HotelServiceRetry(meterRegistry, 5, Duration.ZERO, Duration.ZERO, 0.1, 2);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> retry.call("allocate", () -> {
+                throw new ResourceAccessException("Connection refused");
+            }));
+        }
+
+        // 2 токена на старте + 3 * 0.1 от первых попыток
+        assertEquals(2.0, retries("allocate", "spent"));
+        assertEquals(3.0, retries("allocate", "denied_budget"));
+        assertEquals(0, retry.availableRetries());
+    }
+
+    @Test
+    void call_DeadlineExpired_DeniesRetry() {
+        HotelServiceRetry retry = new HotelServiceRetry(meterRegistry, 3, Duration.ofMillis(100), Duration.ofSeconds(1), 0.1, 10);
+        RequestDeadline.set(0);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ResourceAccessException.class, () -> retry.call("release", () -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("Read timed out");
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, retries("release", "denied_deadline"));
+    }
+
+    @Test
+    void backoff_StaysWithinExponentialCeiling() {
+        HotelServiceRetry retry = new HotelServiceRetry(meterRegistry, 3, Duration.ofMillis(100), Duration.ofMillis(300), 0.1, 10);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(retry.backoff(1) <= 100);
+            assertTrue(retry.backoff(2) <= 200);
+            assertTrue(retry.backoff(5) <= 300);
+        }
+    }
+
+    private double retries(String operation, String outcome) {
+        return meterRegistry.counter("booking.hotel.retries", "operation", operation, "outcome", outcome).count();
+    }
+}
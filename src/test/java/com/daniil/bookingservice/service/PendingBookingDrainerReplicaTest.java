@@ -0,0 +1,70 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Разбор очереди degraded mode при отстающей реплике: реплика — отдельная пустая H2 без репликации,
+ * поэтому бронирование из очереди есть только в основной БД.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "booking.seed.mode=off",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.open-in-view=false",
+        "spring.datasource.url=jdbc:h2:mem:drain_primary;DB_CLOSE_DELAY=-1",
+        "booking.read-replica.enabled=true",
+        "booking.read-replica.url=jdbc:h2:mem:drain_replica;DB_CLOSE_DELAY=-1",
+        "booking.read-replica.migrate=true",
+        "booking.degraded-mode.enabled=true",
+        // плановый разбор не мешает тесту
+        "booking.degraded-mode.drain-interval-ms=3600000"
+})
+class PendingBookingDrainerReplicaTest {
+
+    @Autowired
+    private PendingBookingDrainer drainer;
+
+    @Autowired
+    private PendingBookingQueue queue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void drain_LaggingReplica_ReadsQueuedBookingFromPrimary() {
+        LocalDate start = LocalDate.of(2031, 3, 10);
+        jdbcTemplate.update("""
+                        INSERT INTO bookings (id, user_id, room_id, start_date, end_date, status, created_at, correlation_id)
+                        VALUES (500001, 1, NULL, ?, ?, 'PENDING', ?, 'queued-500001')
+                        """,
+                start, start.plusDays(2), LocalDateTime.now());
+        queue.enqueue(500001L, "queued-500001");
+        when(restTemplate.getForObject(anyString(), eq(Long.class))).thenReturn(101L);
+
+        assertEquals(1, drainer.drain());
+
+        Map<String, Object> booking = jdbcTemplate.queryForMap("SELECT room_id, status FROM bookings WHERE id = 500001");
+        assertEquals(101L, booking.get("ROOM_ID"));
+        assertEquals(BookingStatus.CONFIRMED.name(), booking.get("STATUS"));
+        assertEquals(0, queue.size());
+        verify(restTemplate).postForEntity(eq("http://hotel-service/api/rooms/101/confirm"), isNull(), eq(Void.class));
+    }
+}
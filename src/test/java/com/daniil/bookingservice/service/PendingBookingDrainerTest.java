@@ -0,0 +1,114 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingBookingDrainerTest {
+
+    @Mock
+    private PendingBookingQueue queue;
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Mock
+    private CircuitBreaker circuitBreaker;
+
+    private PendingBookingDrainer drainer;
+
+    @BeforeEach
+    void setUp() {
+        when(circuitBreakerRegistry.circuitBreaker("hotelServiceCB")).thenReturn(circuitBreaker);
+        drainer = new PendingBookingDrainer(queue, bookingService, circuitBreakerRegistry,
+                new ShardRouter(new ShardingProperties()), 2, 3);
+    }
+
+    @Test
+    void drain_CircuitOpen_LeavesQueueUntouched() {
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.OPEN);
+
+        assertEquals(0, drainer.drain());
+
+        verifyNoInteractions(queue, bookingService);
+    }
+
+    @Test
+    void drain_CircuitClosed_ProcessesOneBatch() {
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(queue.claim(2)).thenReturn(List.of(
+                new PendingBookingQueue.Entry(1L, 10L, "c-1", 0),
+                new PendingBookingQueue.Entry(2L, 11L, "c-2", 0)));
+
+        assertEquals(2, drainer.drain());
+
+        verify(bookingService).processQueuedBooking(10L);
+        verify(bookingService).processQueuedBooking(11L);
+        verify(queue).remove(1L);
+        verify(queue).remove(2L);
+        verify(queue, times(1)).claim(anyInt());
+    }
+
+    @Test
+    void drain_FailureDoesNotBlockRestOfBatch() {
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(queue.claim(2)).thenReturn(List.of(
+                new PendingBookingQueue.Entry(1L, 10L, "c-1", 0),
+                new PendingBookingQueue.Entry(2L, 11L, "c-2", 0)));
+        when(bookingService.processQueuedBooking(10L)).thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertEquals(1, drainer.drain());
+
+        verify(queue).markFailed(1L);
+        verify(queue).remove(2L);
+        verify(queue, never()).remove(1L);
+    }
+
+    @Test
+    void drain_MaxAttemptsReached_CancelsAndDeadLetters() {
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(queue.claim(2)).thenReturn(List.of(new PendingBookingQueue.Entry(1L, 10L, "c-1", 2)));
+        when(bookingService.processQueuedBooking(10L)).thenThrow(new IllegalStateException("poison"));
+
+        assertEquals(0, drainer.drain());
+
+        verify(bookingService).cancelQueuedBooking(10L);
+        verify(queue).deadLetter(1L);
+        verify(queue, never()).markFailed(anyLong());
+    }
+
+    @Test
+    void drain_CircuitOpensMidBatch_DoesNotCountAttempt() {
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(queue.claim(2)).thenReturn(List.of(
+                new PendingBookingQueue.Entry(1L, 10L, "c-1", 0),
+                new PendingBookingQueue.Entry(2L, 11L, "c-2", 0)));
+        when(bookingService.processQueuedBooking(10L)).thenThrow(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("hotelServiceCB")));
+
+        assertEquals(0, drainer.drain());
+
+        verify(queue, never()).markFailed(anyLong());
+        verify(bookingService, never()).processQueuedBooking(11L);
+        verify(queue).release(1L);
+        verify(queue).release(2L);
+    }
+}
@@ -0,0 +1,131 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Очередь degraded mode на H2 со схемой из миграций. Без тестовой транзакции: два экземпляра сервиса
+ * (разные owner) разбирают очередь из разных потоков и должны видеть аренды друг друга.
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PendingBookingQueueTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM pending_booking_requests");
+    }
+
+    @Test
+    void claim_FailedEntriesGoBehindFreshOnesAndDeadLettersAreSkipped() {
+        PendingBookingQueue queue = queue("instance-1");
+        queue.enqueue(10L, "c-10");
+        queue.enqueue(11L, "c-11");
+        queue.enqueue(12L, "c-12");
+        List<PendingBookingQueue.Entry> entries = queue.claim(3);
+        queue.markFailed(entries.get(0).id());
+        queue.release(entries.get(1).id());
+        queue.deadLetter(entries.get(2).id());
+
+        List<PendingBookingQueue.Entry> next = queue.claim(3);
+        assertEquals(List.of(11L, 10L), next.stream().map(PendingBookingQueue.Entry::bookingId).toList());
+        assertEquals(1, next.get(1).attempts());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void claim_SkipsEntriesLeasedByAnotherInstanceUntilLeaseExpires() {
+        PendingBookingQueue first = queue("instance-1");
+        PendingBookingQueue second = queue("instance-2");
+        first.enqueue(10L, "c-10");
+        assertEquals(1, first.claim(5).size());
+
+        assertTrue(second.claim(5).isEmpty());
+        // чужую аренду release не снимает
+        second.release(idOf(10L));
+        assertTrue(second.claim(5).isEmpty());
+
+        // instance-1 упал, аренда истекла
+        jdbcTemplate.update("UPDATE pending_booking_requests SET claimed_until = ?", LocalDateTime.now().minusSeconds(1));
+        assertEquals(List.of(10L), second.claim(5).stream().map(PendingBookingQueue.Entry::bookingId).toList());
+    }
+
+    @Test
+    void twoDrainers_ProcessEveryEntryExactlyOnce() throws Exception {
+        int entries = 60;
+        PendingBookingQueue first = queue("instance-1");
+        PendingBookingQueue second = queue("instance-2");
+        for (long bookingId = 1; bookingId <= entries; bookingId++) {
+            first.enqueue(bookingId, "c-" + bookingId);
+        }
+
+        Map<Long, Integer> processed = new ConcurrentHashMap<>();
+        BookingService bookingService = mock(BookingService.class);
+        when(bookingService.processQueuedBooking(anyLong())).thenAnswer(invocation -> {
+            processed.merge(invocation.<Long>getArgument(0), 1, Integer::sum);
+            return null;
+        });
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+        PendingBookingDrainer one = new PendingBookingDrainer(first, bookingService, circuitBreakerRegistry, shardRouter, 5, 3);
+        PendingBookingDrainer two = new PendingBookingDrainer(second, bookingService, circuitBreakerRegistry, shardRouter, 5, 3);
+
+        CountDownLatch start = new CountDownLatch(1);
+        CompletableFuture<Void> drainOne = CompletableFuture.runAsync(() -> drainUntilEmpty(one, first, start));
+        CompletableFuture<Void> drainTwo = CompletableFuture.runAsync(() -> drainUntilEmpty(two, second, start));
+        start.countDown();
+        drainOne.get(30, TimeUnit.SECONDS);
+        drainTwo.get(30, TimeUnit.SECONDS);
+
+        assertEquals(entries, processed.size());
+        assertTrue(processed.values().stream().allMatch(count -> count == 1), () -> "processed twice: " + processed);
+        assertEquals(0, first.size());
+    }
+
+    private void drainUntilEmpty(PendingBookingDrainer drainer, PendingBookingQueue queue, CountDownLatch start) {
+        try {
+            assertTrue(start.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (queue.size() > 0 && System.nanoTime() < deadline) {
+            drainer.drain();
+        }
+    }
+
+    private long idOf(long bookingId) {
+        Long id = jdbcTemplate.queryForObject(
+                "SELECT id FROM pending_booking_requests WHERE booking_id = ?", Long.class, bookingId);
+        return id != null ? id : -1;
+    }
+
+    private PendingBookingQueue queue(String owner) {
+        return new PendingBookingQueue(jdbcTemplate, owner, Duration.ofMinutes(5));
+    }
+}
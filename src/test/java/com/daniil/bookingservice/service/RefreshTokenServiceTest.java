@@ -0,0 +1,102 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.entity.RefreshToken;
+import com.daniil.bookingservice.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, Duration.ofDays(14));
+    }
+
+    @Test
+    void issue_StoresOnlyHashOfToken() {
+        String token = refreshTokenService.issue(7L);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertNotEquals(token, saved.getValue().getTokenHash());
+        assertEquals(RefreshTokenService.hash(token), saved.getValue().getTokenHash());
+        assertEquals(64, saved.getValue().getTokenHash().length());
+        assertEquals(7L, saved.getValue().getUserId());
+    }
+
+    @Test
+    void rotate_UnusedToken_IssuesNewTokenInSameFamily() {
+        RefreshToken current = token(null);
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(1);
+
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate("raw");
+
+        assertTrue(rotation.isPresent());
+        assertEquals(7L, rotation.get().userId());
+        assertNotEquals("raw", rotation.get().refreshToken());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("family-1", saved.getValue().getFamilyId());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString());
+    }
+
+    @Test
+    void rotate_AlreadyUsedToken_RevokesWholeFamily() {
+        RefreshToken current = token(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate("raw");
+
+        assertTrue(rotation.isEmpty());
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_ConcurrentExchangeLosesRace_RevokesWholeFamily() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(token(null)));
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(0);
+
+        assertTrue(refreshTokenService.rotate("raw").isEmpty());
+        verify(refreshTokenRepository).revokeFamily("family-1");
+    }
+
+    @Test
+    void rotate_UnknownToken_ReturnsEmpty() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertTrue(refreshTokenService.rotate("unknown").isEmpty());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    private RefreshToken token(LocalDateTime usedAt) {
+        return RefreshToken.builder()
+                .id(1L)
+                .tokenHash(RefreshTokenService.hash("raw"))
+                .familyId("family-1")
+                .userId(7L)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .usedAt(usedAt)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import com.daniil.bookingservice.sharding.ShardRouter;
+import com.daniil.bookingservice.sharding.ShardingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class RoomAvailabilityCalendarTest {
+
+    private RoomAvailabilityCalendar calendar;
+    private JdbcTemplate jdbcTemplate;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        calendar = new RoomAvailabilityCalendar(jdbcTemplate, new ShardRouter(new ShardingProperties()), 200);
+    }
+
+    @Test
+    void freeRooms_BookingAcrossWordBoundary_BlocksOnlyItsNights() {
+        book(101L, today.plusDays(60), today.plusDays(70));
+        book(102L, today.plusDays(10), today.plusDays(12));
+
+        assertEquals(List.of(102L), calendar.freeRooms(today.plusDays(63), today.plusDays(65)));
+        assertEquals(List.of(101L), calendar.freeRooms(today.plusDays(11), today.plusDays(12)));
+        // день выезда свободен для следующего заезда
+        assertEquals(List.of(101L, 102L), calendar.freeRooms(today.plusDays(70), today.plusDays(130)));
+        assertEquals(List.of(101L, 102L), calendar.freeRooms(today.plusDays(12), today.plusDays(60)));
+    }
+
+    @Test
+    void freeRooms_AfterCancellation_ReleasesRoom() {
+        LocalDate start = today.plusDays(5);
+        LocalDate end = today.plusDays(8);
+        book(101L, start, end);
+        assertTrue(calendar.freeRooms(start, end).isEmpty());
+
+        calendar.onStatusChanged(new BookingStatusChangedEvent(1L, 1L, "c-1", start, end,
+                101L, BookingStatus.CONFIRMED, 101L, BookingStatus.CANCELLED));
+
+        assertEquals(List.of(101L), calendar.freeRooms(start, end));
+    }
+
+    @Test
+    void freeRooms_OutsideHorizon_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> calendar.freeRooms(today.minusDays(1), today.plusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> calendar.freeRooms(today, today.plusDays(201)));
+        assertThrows(IllegalArgumentException.class, () -> calendar.freeRooms(today.plusDays(3), today.plusDays(3)));
+    }
+
+    @Test
+    void rebuild_KeepsTransitionsCommittedDuringScan() {
+        LocalDate start = today.plusDays(5);
+        LocalDate end = today.plusDays(8);
+        book(101L, start, end);
+        // пока идёт чтение БД: новое бронирование 102 и отмена 101, которых запрос уже не видит
+        doAnswer(invocation -> {
+            book(102L, start, end);
+            calendar.onStatusChanged(new BookingStatusChangedEvent(1L, 1L, "c-101", start, end,
+                    101L, BookingStatus.CONFIRMED, 101L, BookingStatus.CANCELLED));
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any());
+
+        calendar.rebuild();
+
+        assertEquals(List.of(101L), calendar.freeRooms(start, end));
+    }
+
+    private void book(Long roomId, LocalDate start, LocalDate end) {
+        calendar.onStatusChanged(new BookingStatusChangedEvent(null, 1L, "c-" + roomId, start, end,
+                null, null, roomId, BookingStatus.CONFIRMED));
+    }
+}
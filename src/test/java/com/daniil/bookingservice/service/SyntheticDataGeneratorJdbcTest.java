@@ -0,0 +1,53 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.SyntheticDataRequest;
+import com.daniil.bookingservice.dto.SyntheticDataResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Генератор на H2 со схемой из миграций: воркеры пишут в своих соединениях, поэтому без тестовой транзакции.
+ */
+@JdbcTest
+@Import(SyntheticDataGenerator.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyntheticDataGeneratorJdbcTest {
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'synthetic_%'");
+    }
+
+    @Test
+    void generate_ReplayedCorrelationIdsDoNotCreateBookings() {
+        SyntheticDataRequest request = new SyntheticDataRequest();
+        request.setUsers(20);
+        request.setBookings(5_000);
+        request.setWorkers(2);
+        request.setBatchSize(200);
+        request.setDuplicateRate(0.1);
+
+        SyntheticDataResult result = generator.generate(request);
+
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Long.class);
+        assertTrue(result.getDuplicateRequests() > 300, "duplicates=" + result.getDuplicateRequests());
+        assertEquals(5_000, result.getBookingsInserted() + result.getDuplicateRequests());
+        assertEquals(result.getBookingsInserted(), rows);
+        assertEquals(20, result.getUsersInserted());
+    }
+}
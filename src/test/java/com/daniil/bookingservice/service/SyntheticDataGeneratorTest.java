@@ -0,0 +1,104 @@
+package com.daniil.bookingservice.service;
+
+import com.daniil.bookingservice.dto.SyntheticDataRequest;
+import com.daniil.bookingservice.entity.BookingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticDataGeneratorTest {
+
+    private static final int SAMPLES = 50_000;
+
+    private SyntheticDataRequest request;
+    private final LocalDate today = LocalDate.of(2025, 6, 1);
+    private final long[] userIds = {1L, 2L, 3L};
+
+    @BeforeEach
+    void setUp() {
+        request = new SyntheticDataRequest();
+        request.setRooms(100);
+    }
+
+    @Test
+    void rowFactory_ProducesConfiguredStatusMix() {
+        SyntheticDataGenerator.BookingRowFactory factory = new SyntheticDataGenerator.BookingRowFactory(request, userIds, today, 1L);
+        Map<BookingStatus, Integer> counts = new EnumMap<>(BookingStatus.class);
+        int rows = 0;
+
+        for (int i = 0; i < SAMPLES; i++) {
+            SyntheticDataGenerator.BookingRow row = factory.next();
+            if (!row.replay()) {
+                counts.merge(row.status(), 1, Integer::sum);
+                rows++;
+            }
+        }
+
+        assertEquals(0.70, counts.get(BookingStatus.CONFIRMED) / (double) rows, 0.02);
+        assertEquals(0.20, counts.get(BookingStatus.CANCELLED) / (double) rows, 0.02);
+        assertEquals(0.10, counts.get(BookingStatus.PENDING) / (double) rows, 0.02);
+        assertEquals(request.getDuplicateRate(), (SAMPLES - rows) / (double) SAMPLES, 0.01);
+    }
+
+    @Test
+    void rowFactory_KeepsDatesInRangeAndRoomsSkewed() {
+        SyntheticDataGenerator.BookingRowFactory factory = new SyntheticDataGenerator.BookingRowFactory(request, userIds, today, 2L);
+        Map<Long, Integer> perRoom = new HashMap<>();
+
+        for (int i = 0; i < SAMPLES; i++) {
+            SyntheticDataGenerator.BookingRow row = factory.next();
+            assertFalse(row.startDate().isBefore(today.minusDays(request.getDaysBack())));
+            assertFalse(row.startDate().isAfter(today.plusDays(request.getDaysForward())));
+            assertTrue(row.endDate().isAfter(row.startDate()));
+            if (row.roomId() == null) {
+                assertEquals(BookingStatus.CANCELLED, row.status());
+            } else {
+                perRoom.merge(row.roomId(), 1, Integer::sum);
+            }
+        }
+
+        int hotRooms = perRoom.getOrDefault(101L, 0) + perRoom.getOrDefault(102L, 0);
+        int coldRooms = perRoom.getOrDefault(197L, 0) + perRoom.getOrDefault(198L, 0);
+        assertTrue(hotRooms > coldRooms * 10, "hot=" + hotRooms + " cold=" + coldRooms);
+    }
+
+    @Test
+    void rowFactory_IsDeterministicForSeed() {
+        SyntheticDataGenerator.BookingRowFactory first = new SyntheticDataGenerator.BookingRowFactory(request, userIds, today, 7L);
+        SyntheticDataGenerator.BookingRowFactory second = new SyntheticDataGenerator.BookingRowFactory(request, userIds, today, 7L);
+
+        for (int i = 0; i < 100; i++) {
+            SyntheticDataGenerator.BookingRow a = first.next();
+            SyntheticDataGenerator.BookingRow b = second.next();
+            assertEquals(a, b);
+        }
+    }
+
+    @Test
+    void rowFactory_ReplaysRecentCorrelationIds() {
+        request.setDuplicateRate(0.2);
+        SyntheticDataGenerator.BookingRowFactory factory = new SyntheticDataGenerator.BookingRowFactory(request, userIds, today, 3L);
+        Map<String, SyntheticDataGenerator.BookingRow> issued = new HashMap<>();
+        int replays = 0;
+
+        for (int i = 0; i < 1_000; i++) {
+            SyntheticDataGenerator.BookingRow row = factory.next();
+            if (row.replay()) {
+                replays++;
+                SyntheticDataGenerator.BookingRow original = issued.get(row.correlationId());
+                assertNotNull(original, "replay of an unknown request " + row.correlationId());
+                assertEquals(original.startDate(), row.startDate());
+                assertEquals(original.userId(), row.userId());
+            } else {
+                assertNull(issued.put(row.correlationId(), row));
+            }
+        }
+        assertTrue(replays > 100, "replays=" + replays);
+    }
+}
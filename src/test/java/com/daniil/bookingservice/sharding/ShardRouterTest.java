@@ -0,0 +1,91 @@
+package com.daniil.bookingservice.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    private final ShardRouter router = new ShardRouter(properties(3));
+
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+    }
+
+    @Test
+    void shardForBookingId_MatchesIdSequenceOfShard() {
+        for (int shard = 0; shard < 3; shard++) {
+            long id = ShardSchema.nextId(0, shard, 3);
+            for (int i = 0; i < 5; i++, id += 3) {
+                assertEquals(shard, router.shardForBookingId(id));
+            }
+        }
+        assertEquals(8, ShardSchema.nextId(5, 1, 3));
+    }
+
+    @Test
+    void shardForUser_IsStable() {
+        assertEquals(0, router.shardForUser(null));
+        assertEquals(router.shardForUser(7L), router.shardForUser(7L));
+        assertEquals(1, router.shardForUser(7L));
+    }
+
+    @Test
+    void callOn_RestoresPreviousShard() {
+        assertNull(ShardRouter.currentShard());
+
+        router.runOn(2, () -> {
+            assertEquals(2, ShardRouter.currentShard());
+            router.runOn(1, () -> assertEquals(1, ShardRouter.currentShard()));
+            assertEquals(2, ShardRouter.currentShard());
+        });
+
+        assertNull(ShardRouter.currentShard());
+        assertThrows(IllegalArgumentException.class, () -> router.runOn(3, () -> { }));
+    }
+
+    @Test
+    void gather_RunsEveryShardInItsContextAndKeepsOrder() {
+        List<String> results = router.gather(shard -> shard + ":" + ShardRouter.currentShard());
+
+        assertEquals(List.of("0:0", "1:1", "2:2"), results);
+        assertNull(ShardRouter.currentShard());
+    }
+
+    @Test
+    void gather_PropagatesShardFailure() {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> router.gather(shard -> {
+            if (shard == 1) {
+                throw new IllegalStateException("shard 1 down");
+            }
+            return shard;
+        }));
+
+        assertEquals("shard 1 down", error.getMessage());
+    }
+
+    @Test
+    void disabledSharding_UsesSingleShardOnCallerThread() {
+        ShardRouter single = new ShardRouter(new ShardingProperties());
+        Thread caller = Thread.currentThread();
+
+        assertEquals(1, single.shardCount());
+        assertEquals(0, single.shardForBookingId(42));
+        assertEquals(List.of(true), single.gather(shard -> Thread.currentThread() == caller));
+    }
+
+    static ShardingProperties properties(int shards) {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        for (int i = 0; i < shards; i++) {
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setUrl("jdbc:h2:mem:shard_router_" + i + ";DB_CLOSE_DELAY=-1");
+            properties.getShards().add(shard);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,127 @@
+package com.daniil.bookingservice.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Три независимые H2 в памяти за ShardRoutingDataSource, без Spring-контекста.
+ */
+class ShardRoutingDataSourceTest {
+
+    private static final int SHARDS = 3;
+
+    private ShardRouter router;
+    private final List<HikariDataSource> shards = new ArrayList<>();
+    private ShardRoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        for (int i = 0; i < SHARDS; i++) {
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setUrl("jdbc:h2:mem:shard_" + run + "_" + i + ";DB_CLOSE_DELAY=-1");
+            properties.getShards().add(shard);
+
+            HikariDataSource shardDataSource = new HikariDataSource();
+            shardDataSource.setJdbcUrl(shard.getUrl());
+            shardDataSource.setUsername(shard.getUsername());
+            shardDataSource.setPassword(shard.getPassword());
+            shardDataSource.setMaximumPoolSize(2);
+            ShardSchema.prepare(shardDataSource, "classpath:db/migration", i, SHARDS);
+            shards.add(shardDataSource);
+        }
+        router = new ShardRouter(properties);
+        dataSource = new ShardRoutingDataSource(shards, shards);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+        dataSource.close();
+    }
+
+    @Test
+    void insert_OnUserShard_IdEncodesShard() {
+        for (long userId = 1; userId <= 9; userId++) {
+            long user = userId;
+            int shard = router.shardForUser(user);
+            long id = router.callOn(shard, () -> insertBooking(user, "c-" + user));
+
+            assertEquals(shard, router.shardForBookingId(id));
+            Long owner = router.callOn(router.shardForBookingId(id), () -> jdbcTemplate.queryForObject(
+                    "SELECT user_id FROM bookings WHERE id = ?", Long.class, id));
+            assertEquals(user, owner);
+        }
+    }
+
+    @Test
+    void lookup_OnOtherShard_DoesNotSeeRow() {
+        long id = router.callOn(1, () -> insertBooking(4L, "c-4"));
+
+        Integer elsewhere = router.callOn(2, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE id = ?", Integer.class, id));
+        assertEquals(0, elsewhere);
+    }
+
+    @Test
+    void withoutContext_UsesFirstShard() {
+        long id = insertBooking(5L, "c-default");
+
+        assertEquals(0, router.shardForBookingId(id));
+    }
+
+    @Test
+    void gather_CountsAcrossAllShards() {
+        for (long userId = 1; userId <= 7; userId++) {
+            long user = userId;
+            router.callOn(router.shardForUser(user), () -> insertBooking(user, "c-" + user));
+        }
+
+        List<Integer> perShard = router.gather(shard ->
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class));
+
+        assertEquals(List.of(2, 3, 2), perShard);
+    }
+
+    @Test
+    void prepare_AfterRestart_ContinuesShardSequence() {
+        router.callOn(1, () -> insertBooking(1L, "c-1"));
+        long last = router.callOn(1, () -> insertBooking(4L, "c-4"));
+
+        ShardSchema.prepare(shards.get(1), "classpath:db/migration", 1, SHARDS);
+        long next = router.callOn(1, () -> insertBooking(7L, "c-7"));
+
+        assertEquals(last + SHARDS, next);
+    }
+
+    private long insertBooking(long userId, String correlationId) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                    INSERT INTO bookings (user_id, room_id, start_date, end_date, status, created_at, correlation_id)
+                    VALUES (?, 101, CURRENT_DATE, DATEADD('DAY', 1, CURRENT_DATE), 'CONFIRMED', CURRENT_TIMESTAMP, ?)
+                    """, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, userId);
+            ps.setString(2, correlationId);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
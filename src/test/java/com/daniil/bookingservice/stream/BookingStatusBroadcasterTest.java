@@ -0,0 +1,155 @@
+package com.daniil.bookingservice.stream;
+
+import com.daniil.bookingservice.dto.BookingStatusUpdate;
+import com.daniil.bookingservice.entity.BookingStatus;
+import com.daniil.bookingservice.event.BookingStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingStatusBroadcasterTest {
+
+    private final List<Runnable> deferred = new ArrayList<>();
+
+    @Test
+    void userStream_ReceivesOnlyOwnBookings() {
+        BookingStatusBroadcaster broadcaster = broadcaster(64, Runnable::run);
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.register(new BookingEventSubscriber(first, null, 1L, 64));
+        broadcaster.register(new BookingEventSubscriber(second, null, 2L, 64));
+
+        broadcaster.onStatusChanged(event(10L, 1L, null, BookingStatus.PENDING));
+
+        assertEquals(List.of(new BookingStatusUpdate(10L, 1L, 101L, null, BookingStatus.PENDING)), first.updates);
+        assertTrue(first.events.get(0).startsWith("event:status"));
+        assertTrue(second.events.isEmpty());
+    }
+
+    @Test
+    void slowSubscriber_GetsOneDispatchAndCoalescedTransition() {
+        BookingStatusBroadcaster broadcaster = broadcaster(64, deferred::add);
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(new BookingEventSubscriber(emitter, null, 1L, 64));
+
+        broadcaster.onStatusChanged(event(10L, 1L, null, BookingStatus.PENDING));
+        broadcaster.onStatusChanged(event(10L, 1L, BookingStatus.PENDING, BookingStatus.CONFIRMED));
+        broadcaster.onStatusChanged(event(11L, 1L, null, BookingStatus.PENDING));
+
+        assertEquals(1, deferred.size());
+        deferred.remove(0).run();
+
+        assertEquals(List.of(
+                new BookingStatusUpdate(10L, 1L, 101L, null, BookingStatus.CONFIRMED),
+                new BookingStatusUpdate(11L, 1L, 101L, null, BookingStatus.PENDING)), emitter.updates);
+    }
+
+    @Test
+    void overflow_DropsOldestAndSendsResyncFirst() {
+        BookingStatusBroadcaster broadcaster = broadcaster(2, deferred::add);
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(new BookingEventSubscriber(emitter, null, 1L, 2));
+
+        broadcaster.onStatusChanged(event(10L, 1L, null, BookingStatus.PENDING));
+        broadcaster.onStatusChanged(event(11L, 1L, null, BookingStatus.PENDING));
+        broadcaster.onStatusChanged(event(12L, 1L, null, BookingStatus.PENDING));
+        deferred.remove(0).run();
+
+        assertTrue(emitter.events.get(0).startsWith("event:resync"));
+        assertEquals(List.of(11L, 12L), emitter.updates.stream().map(BookingStatusUpdate::bookingId).toList());
+    }
+
+    @Test
+    void bookingStream_SnapshotDoesNotOverrideLiveEventAndEndsOnCancel() {
+        BookingStatusBroadcaster broadcaster = broadcaster(64, deferred::add);
+        RecordingEmitter emitter = new RecordingEmitter();
+        BookingEventSubscriber subscriber = broadcaster.register(new BookingEventSubscriber(emitter, 10L, null, 64));
+
+        broadcaster.onStatusChanged(event(10L, 1L, BookingStatus.PENDING, BookingStatus.CANCELLED));
+        assertFalse(subscriber.offer(new BookingStatusUpdate(10L, 1L, 101L, null, BookingStatus.PENDING), false));
+        deferred.remove(0).run();
+
+        assertEquals(List.of(BookingStatus.CANCELLED), emitter.updates.stream().map(BookingStatusUpdate::status).toList());
+        assertTrue(emitter.completed);
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void subscribeToBooking_UnknownBookingLeavesNoSubscriber() {
+        BookingStatusBroadcaster broadcaster = broadcaster(64, Runnable::run);
+
+        assertTrue(broadcaster.subscribeToBooking(99L, Optional::empty).isEmpty());
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void heartbeat_SentToIdleSubscriber() {
+        BookingStatusBroadcaster broadcaster = new BookingStatusBroadcaster(Duration.ofMinutes(30), 100, 64, 0, Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(new BookingEventSubscriber(emitter, null, 1L, 64));
+
+        broadcaster.heartbeat();
+
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).startsWith(":heartbeat"));
+    }
+
+    @Test
+    void failedSend_RemovesSubscriber() {
+        BookingStatusBroadcaster broadcaster = broadcaster(64, Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+        broadcaster.register(new BookingEventSubscriber(emitter, null, 1L, 64));
+
+        broadcaster.onStatusChanged(event(10L, 1L, null, BookingStatus.PENDING));
+
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    private BookingStatusBroadcaster broadcaster(int maxPending, Executor dispatcher) {
+        return new BookingStatusBroadcaster(Duration.ofMinutes(30), 100, maxPending, 15_000, dispatcher);
+    }
+
+    private static BookingStatusChangedEvent event(Long bookingId, Long userId, BookingStatus previous, BookingStatus status) {
+        LocalDate start = LocalDate.of(2025, 9, 1);
+        return new BookingStatusChangedEvent(bookingId, userId, "corr-" + bookingId, start, start.plusDays(2),
+                101L, previous, 101L, status);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new ArrayList<>();
+        final List<BookingStatusUpdate> updates = new ArrayList<>();
+        boolean failing;
+        boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof BookingStatusUpdate update) {
+                    updates.add(update);
+                }
+                text.append(part.getData());
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}